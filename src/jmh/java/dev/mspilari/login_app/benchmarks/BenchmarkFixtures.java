@@ -0,0 +1,53 @@
+package dev.mspilari.login_app.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.OctetKeyPairGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+
+import dev.mspilari.login_app.configs.JwtConfig;
+import dev.mspilari.login_app.configs.PasswordEncoderConfig;
+import dev.mspilari.login_app.utils.JwtKeyRing;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static JwtKeyRing keyRing(String algorithm) throws Exception {
+        var jwtConfig = new JwtConfig();
+        ReflectionTestUtils.setField(jwtConfig, "algorithm", algorithm);
+
+        if ("RS256".equals(algorithm)) {
+            var rsaKey = new RSAKeyGenerator(2048).generate();
+            ReflectionTestUtils.setField(jwtConfig, "publicKey", rsaKey.toRSAPublicKey());
+            ReflectionTestUtils.setField(jwtConfig, "privateKey", rsaKey.toRSAPrivateKey());
+        } else {
+            JWK jwk = "ES256".equals(algorithm)
+                    ? new ECKeyGenerator(Curve.P_256).generate()
+                    : new OctetKeyPairGenerator(Curve.Ed25519).generate();
+            ReflectionTestUtils.setField(jwtConfig, "jwk",
+                    new ByteArrayResource(jwk.toJSONString().getBytes(StandardCharsets.UTF_8)));
+        }
+
+        return new JwtKeyRing(jwtConfig.jwtKeyMaterial(), false, Duration.ofDays(1), Duration.ofMinutes(5),
+                Duration.ofMinutes(6), Clock.systemUTC());
+    }
+
+    static PasswordEncoder passwordEncoder(int bcryptStrength) {
+        var passwordEncoderConfig = new PasswordEncoderConfig();
+        ReflectionTestUtils.setField(passwordEncoderConfig, "encoderId", "bcrypt");
+        ReflectionTestUtils.setField(passwordEncoderConfig, "bcryptStrength", bcryptStrength);
+        return passwordEncoderConfig.passwordEncoder(new SimpleMeterRegistry());
+    }
+}
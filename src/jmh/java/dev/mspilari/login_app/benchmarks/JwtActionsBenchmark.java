@@ -0,0 +1,86 @@
+package dev.mspilari.login_app.benchmarks;
+
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+
+import dev.mspilari.login_app.configs.JwtConfig;
+import dev.mspilari.login_app.utils.JwtActions;
+import dev.mspilari.login_app.utils.JwtKeyRing;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtActionsBenchmark {
+
+    private JwtEncoder nimbusJwtEncoder;
+
+    private JwtActions jwtActions;
+
+    @Setup
+    public void setUp() throws Exception {
+        var generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        var keyPair = generator.generateKeyPair();
+        var publicKey = (RSAPublicKey) keyPair.getPublic();
+        var privateKey = (RSAPrivateKey) keyPair.getPrivate();
+
+        var jwk = new RSAKey.Builder(publicKey).privateKey(privateKey).build();
+        nimbusJwtEncoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(jwk)));
+
+        var jwtConfig = new JwtConfig();
+        ReflectionTestUtils.setField(jwtConfig, "publicKey", publicKey);
+        ReflectionTestUtils.setField(jwtConfig, "privateKey", privateKey);
+        var keyRing = new JwtKeyRing(jwtConfig.jwtKeyMaterial(), false, Duration.ofDays(1), Duration.ofMinutes(5),
+                Duration.ofMinutes(6), Clock.systemUTC());
+        jwtActions = new JwtActions(keyRing);
+        ReflectionTestUtils.setField(jwtActions, "jwtExpiration", 300L);
+    }
+
+    @Benchmark
+    public String nimbusJwtEncoder() {
+        var now = Instant.now();
+
+        var claims = JwtClaimsSet.builder()
+                .issuer("login_app")
+                .subject("test@email.com")
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(300))
+                .claim("scope", "CLIENT")
+                .build();
+
+        return nimbusJwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
+    }
+
+    @Benchmark
+    public String jwtActions() {
+        return jwtActions.jwtCreate("test@email.com", "CLIENT");
+    }
+}
@@ -0,0 +1,83 @@
+package dev.mspilari.login_app.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import dev.mspilari.login_app.utils.CachingJwtDecoder;
+import dev.mspilari.login_app.utils.JwtActions;
+import dev.mspilari.login_app.utils.SignedJwtDecoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAlgorithmBenchmark {
+
+    @Param({ "RS256", "ES256", "Ed25519" })
+    private String algorithm;
+
+    private JwtActions jwtActions;
+
+    private JwtDecoder jwtDecoder;
+
+    private JwtDecoder cachingJwtDecoder;
+
+    private String token;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class TokenSize {
+        public long tokenBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            tokenBytes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        var keyRing = BenchmarkFixtures.keyRing(algorithm);
+        jwtActions = new JwtActions(keyRing);
+        ReflectionTestUtils.setField(jwtActions, "jwtExpiration", 300L);
+        jwtDecoder = new SignedJwtDecoder(keyRing);
+        cachingJwtDecoder = new CachingJwtDecoder(jwtDecoder, 10_000, new SimpleMeterRegistry());
+        token = jwtActions.jwtCreate("test@email.com", "CLIENT");
+    }
+
+    @Benchmark
+    public String sign(TokenSize tokenSize) {
+        var created = jwtActions.jwtCreate("test@email.com", "CLIENT");
+        tokenSize.tokenBytes += created.length();
+        return created;
+    }
+
+    @Benchmark
+    public Jwt verify() {
+        return jwtDecoder.decode(token);
+    }
+
+    @Benchmark
+    public Jwt verifyCached() {
+        return cachingJwtDecoder.decode(token);
+    }
+}
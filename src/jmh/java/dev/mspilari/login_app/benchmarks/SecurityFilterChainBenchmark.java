@@ -0,0 +1,132 @@
+package dev.mspilari.login_app.benchmarks;
+
+import static org.mockito.Mockito.mock;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.mspilari.login_app.configs.JwtConfig;
+import dev.mspilari.login_app.configs.SecurityConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Runs a public auth request through the security filters only, ending in an empty servlet, so the figures are the
+// per-request cost of the filter chain. "stateful" is the previous single chain left at Spring Security defaults.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecurityFilterChainBenchmark {
+
+    @Param({ "stateful", "stateless" })
+    private String chain;
+
+    private AnnotationConfigWebApplicationContext context;
+
+    private FilterChainProxy filterChainProxy;
+
+    @Configuration
+    @EnableWebMvc
+    static class Infrastructure {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+
+        @Bean
+        JwtConfig jwtConfig() {
+            return mock(JwtConfig.class);
+        }
+    }
+
+    @Configuration
+    @EnableWebSecurity
+    static class StatefulSecurityConfig {
+        @Bean
+        SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+            http
+                    .csrf(csrf -> csrf.disable())
+                    .authorizeHttpRequests(auth -> auth.requestMatchers(HttpMethod.POST, "/user/register").permitAll()
+                            .requestMatchers(HttpMethod.POST, "/user/login").permitAll()
+                            .requestMatchers(HttpMethod.POST, "/user/refresh").permitAll()
+                            .requestMatchers(HttpMethod.POST, "/user/redeem-password").permitAll()
+                            .requestMatchers(HttpMethod.POST, "/user/reset-password").permitAll()
+                            .requestMatchers(HttpMethod.GET, "/.well-known/jwks.json").permitAll()
+                            .anyRequest().authenticated())
+                    .oauth2ResourceServer(config -> config.jwt(jwt -> jwt.decoder(mock(JwtDecoder.class))));
+
+            return http.build();
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        context.getEnvironment().getPropertySources()
+                .addFirst(new MapPropertySource("benchmark", Map.of("rate-limit.enabled", "false")));
+        context.register(Infrastructure.class,
+                "stateless".equals(chain) ? SecurityConfig.class : StatefulSecurityConfig.class);
+        context.refresh();
+
+        filterChainProxy = context.getBean(FilterChainProxy.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int login() throws Exception {
+        var request = new MockHttpServletRequest("POST", "/user/login");
+        // As presented by the DispatcherServlet mapped to "/".
+        request.setServletPath("/user/login");
+        var response = new MockHttpServletResponse();
+
+        filterChainProxy.doFilter(request, response, new MockFilterChain());
+
+        if (request.getSession(false) != null) {
+            throw new IllegalStateException("The auth endpoints must not create a session");
+        }
+
+        return response.getStatus();
+    }
+}
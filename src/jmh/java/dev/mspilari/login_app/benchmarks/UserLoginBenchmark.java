@@ -0,0 +1,104 @@
+package dev.mspilari.login_app.benchmarks;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import dev.mspilari.login_app.domains.lockout.repositories.InMemoryAttemptStore;
+import dev.mspilari.login_app.domains.lockout.services.LoginLockoutService;
+import dev.mspilari.login_app.domains.token.services.RefreshTokenService;
+import dev.mspilari.login_app.domains.user.dto.UserCredentialsDto;
+import dev.mspilari.login_app.domains.user.dto.UserTokensDto;
+import dev.mspilari.login_app.domains.user.enums.Role;
+import dev.mspilari.login_app.domains.user.repositories.NoOpCredentialCache;
+import dev.mspilari.login_app.domains.user.repositories.UserRepository;
+import dev.mspilari.login_app.domains.user.services.UserService;
+import dev.mspilari.login_app.utils.JwtActions;
+import dev.mspilari.login_app.utils.PasswordHasher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// The database and refresh-token store are stubbed, so this measures the CPU cost of a login: lockout check,
+// BCrypt match on the hashing pool and JWT signing.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserLoginBenchmark {
+
+    private static final String EMAIL = "test@email.com";
+
+    private static final String PASSWORD = "benchmark-password";
+
+    @Param({ "10", "12" })
+    private int strength;
+
+    @Param({ "RS256", "ES256", "Ed25519" })
+    private String algorithm;
+
+    private PasswordHasher passwordHasher;
+
+    private UserService userService;
+
+    @Setup
+    public void setUp() throws Exception {
+        var meterRegistry = new SimpleMeterRegistry();
+        var passwordEncoder = BenchmarkFixtures.passwordEncoder(strength);
+
+        passwordHasher = new PasswordHasher(passwordEncoder, meterRegistry);
+        ReflectionTestUtils.setField(passwordHasher, "queueCapacity", 64);
+        passwordHasher.start();
+
+        var jwtActions = new JwtActions(BenchmarkFixtures.keyRing(algorithm));
+        ReflectionTestUtils.setField(jwtActions, "jwtExpiration", 300L);
+
+        var loginLockoutService = new LoginLockoutService(
+                new InMemoryAttemptStore(Duration.ofMinutes(15), 100_000, meterRegistry, Clock.systemUTC()),
+                meterRegistry);
+        ReflectionTestUtils.setField(loginLockoutService, "maxFailures", 5L);
+        ReflectionTestUtils.setField(loginLockoutService, "accountMaxFailures", 100L);
+        ReflectionTestUtils.setField(loginLockoutService, "windowSeconds", 900L);
+        ReflectionTestUtils.setField(loginLockoutService, "lockoutSeconds", 900L);
+
+        var userRepository = mock(UserRepository.class);
+        when(userRepository.findCredentialsByEmail(EMAIL)).thenReturn(Optional.of(
+                new UserCredentialsDto(UUID.randomUUID(), EMAIL, passwordEncoder.encode(PASSWORD), Role.CLIENT)));
+
+        var refreshTokenService = mock(RefreshTokenService.class);
+        when(refreshTokenService.issue(any())).thenReturn("refresh-token");
+
+        userService = new UserService(userRepository, passwordHasher, jwtActions, null, refreshTokenService,
+                loginLockoutService, null, null, new NoOpCredentialCache(), meterRegistry);
+    }
+
+    @TearDown
+    public void tearDown() {
+        passwordHasher.stop();
+    }
+
+    @Benchmark
+    public UserTokensDto login() {
+        return userService.login(EMAIL, PASSWORD, "127.0.0.1");
+    }
+}
@@ -0,0 +1,52 @@
+package dev.mspilari.login_app.loadtest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Recorder;
+
+final class EndpointStats {
+
+    private final Recorder recorder = new Recorder(3);
+
+    private final LongAdder errors = new LongAdder();
+
+    private final LongAdder skipped = new LongAdder();
+
+    private volatile long startNanos = System.nanoTime();
+
+    void record(long latencyNanos, boolean success) {
+        recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+
+        if (!success) {
+            errors.increment();
+        }
+    }
+
+    void skip() {
+        skipped.increment();
+    }
+
+    void reset() {
+        recorder.reset();
+        errors.reset();
+        skipped.reset();
+        startNanos = System.nanoTime();
+    }
+
+    Result snapshot(String endpoint) {
+        var histogram = recorder.getIntervalHistogram();
+        var seconds = (System.nanoTime() - startNanos) / 1e9;
+
+        return new Result(endpoint, histogram.getTotalCount(), errors.sum(), skipped.sum(),
+                histogram.getTotalCount() / seconds,
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    record Result(String endpoint, long requests, long errors, long skipped, double throughput, double p50Millis,
+            double p99Millis, double p999Millis, double maxMillis) {
+    }
+}
@@ -0,0 +1,310 @@
+package dev.mspilari.login_app.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPairGenerator;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+
+import dev.mspilari.login_app.LoginAppApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+// Boots login_app against an embedded Postgres and a GreenMail SMTP server, then drives a closed-loop mix of
+// register, login, redeem-password and reset-password requests and reports latency percentiles per endpoint.
+//
+// Arguments are key=value settings (see DEFAULTS); arguments starting with -- are passed to the application.
+public class LoadTest {
+
+    private static final String PASSWORD = "12345";
+
+    private static final Map<String, String> DEFAULTS = Map.of(
+            "users", "1000",
+            "concurrency", "64",
+            "warmup-seconds", "10",
+            "duration-seconds", "60",
+            "mix", "register:10,login:70,redeem:15,reset:5",
+            "bcrypt-strength", "10",
+            "result", "target/loadtest-result.json");
+
+    enum Endpoint {
+        REGISTER("/user/register"),
+        LOGIN("/user/login"),
+        REDEEM("/user/redeem-password"),
+        RESET("/user/reset-password");
+
+        private final String path;
+
+        Endpoint(String path) {
+            this.path = path;
+        }
+    }
+
+    private final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    private final String baseUrl;
+
+    private final List<String> emails;
+
+    private final ResetTokenInbox inbox;
+
+    private final Endpoint[] mix;
+
+    private LoadTest(String baseUrl, List<String> emails, ResetTokenInbox inbox, Endpoint[] mix) {
+        this.baseUrl = baseUrl;
+        this.emails = emails;
+        this.inbox = inbox;
+        this.mix = mix;
+
+        for (var endpoint : Endpoint.values()) {
+            stats.put(endpoint, new EndpointStats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Otherwise devtools relaunches this main method in a restart class loader with only the application args.
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        var settings = new LinkedHashMap<>(DEFAULTS);
+        var appProperties = new LinkedHashMap<String, String>();
+
+        for (var arg : args) {
+            var separator = arg.indexOf('=');
+
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected key=value or --property=value, got " + arg);
+            }
+            if (arg.startsWith("--")) {
+                appProperties.put(arg.substring(2, separator), arg.substring(separator + 1));
+            } else {
+                settings.put(arg.substring(0, separator), arg.substring(separator + 1));
+            }
+        }
+
+        var users = Integer.parseInt(settings.get("users"));
+        var concurrency = Integer.parseInt(settings.get("concurrency"));
+        var warmupSeconds = Long.parseLong(settings.get("warmup-seconds"));
+        var durationSeconds = Long.parseLong(settings.get("duration-seconds"));
+        var bcryptStrength = Integer.parseInt(settings.get("bcrypt-strength"));
+        var mix = parseMix(settings.get("mix"));
+
+        var greenMail = new GreenMail(ServerSetupTest.SMTP.dynamicPort())
+                .withConfiguration(GreenMailConfiguration.aConfig().withDisabledAuthentication());
+        greenMail.start();
+
+        try (var postgres = EmbeddedPostgres.builder().start(); var inbox = new ResetTokenInbox(greenMail)) {
+            var dataSource = postgres.getPostgresDatabase();
+            Flyway.configure().dataSource(dataSource).load().migrate();
+
+            System.out.printf("Seeding %d users%n", users);
+            var emails = seedUsers(new JdbcTemplate(dataSource), users, bcryptStrength);
+
+            var keyDir = Files.createTempDirectory("loadtest-keys");
+            var keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+            keyPairGenerator.initialize(2048);
+            var keyPair = keyPairGenerator.generateKeyPair();
+
+            var properties = new LinkedHashMap<String, String>();
+            properties.put("server.port", "0");
+            properties.put("management.server.port", "0");
+            properties.put("spring.main.banner-mode", "off");
+            properties.put("spring.mvc.log-resolved-exception", "false");
+            properties.put("logging.level.root", "WARN");
+            properties.put("spring.datasource.url", postgres.getJdbcUrl("postgres", "postgres"));
+            properties.put("spring.datasource.username", "postgres");
+            properties.put("spring.datasource.password", "postgres");
+            properties.put("spring.jpa.show-sql", "false");
+            properties.put("spring.mail.host", "localhost");
+            properties.put("spring.mail.port", String.valueOf(greenMail.getSmtp().getPort()));
+            properties.put("spring.mail.properties.mail.smtp.auth", "false");
+            properties.put("spring.mail.properties.mail.smtp.starttls.enable", "false");
+            properties.put("spring.mail.properties.mail.smtp.starttls.required", "false");
+            properties.put("jwt.public.key", "file:" + writePem(keyDir.resolve("public.key"), "PUBLIC KEY",
+                    keyPair.getPublic().getEncoded()));
+            properties.put("jwt.private.key", "file:" + writePem(keyDir.resolve("private.key"), "PRIVATE KEY",
+                    keyPair.getPrivate().getEncoded()));
+            properties.put("rate-limit.enabled", "false");
+            properties.put("password.bcrypt.strength", String.valueOf(bcryptStrength));
+            properties.putAll(appProperties);
+
+            var context = new SpringApplicationBuilder(LoginAppApplication.class).run(properties.entrySet().stream()
+                    .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                    .toArray(String[]::new));
+
+            try {
+                var port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+                var loadTest = new LoadTest("http://localhost:" + port, emails, inbox, mix);
+
+                var results = loadTest.run(concurrency, warmupSeconds, durationSeconds);
+
+                report(results);
+                var resultFile = Path.of(settings.get("result"));
+                Files.createDirectories(resultFile.toAbsolutePath().getParent());
+                new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(resultFile.toFile(),
+                        Map.of("settings", settings, "properties", appProperties, "results", results));
+                System.out.printf("Results written to %s%n", resultFile);
+            } finally {
+                context.close();
+            }
+        } finally {
+            greenMail.stop();
+        }
+    }
+
+    private List<EndpointStats.Result> run(int concurrency, long warmupSeconds, long durationSeconds)
+            throws InterruptedException {
+        var running = new AtomicBoolean(true);
+        var workers = new ArrayList<Thread>(concurrency);
+
+        for (int i = 0; i < concurrency; i++) {
+            workers.add(Thread.ofVirtual().name("loadtest-", i).start(() -> {
+                while (running.get()) {
+                    execute(mix[ThreadLocalRandom.current().nextInt(mix.length)]);
+                }
+            }));
+        }
+
+        System.out.printf("Warming up for %d s with %d workers%n", warmupSeconds, concurrency);
+        Thread.sleep(warmupSeconds * 1000);
+        stats.values().forEach(EndpointStats::reset);
+
+        System.out.printf("Measuring for %d s%n", durationSeconds);
+        Thread.sleep(durationSeconds * 1000);
+
+        var results = stats.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(entry.getKey().path))
+                .toList();
+
+        running.set(false);
+        for (var worker : workers) {
+            worker.join();
+        }
+
+        return results;
+    }
+
+    private void execute(Endpoint endpoint) {
+        var random = ThreadLocalRandom.current();
+        var email = emails.get(random.nextInt(emails.size()));
+
+        var body = switch (endpoint) {
+            case REGISTER -> credentials("loadtest-" + UUID.randomUUID() + "@loadtest.local");
+            case LOGIN -> credentials(email);
+            case REDEEM -> "{\"email\":\"" + email + "\"}";
+            case RESET -> {
+                var token = inbox.poll();
+                yield token == null ? null : "{\"token\":\"" + token + "\",\"password\":\"" + PASSWORD + "\"}";
+            }
+        };
+
+        var endpointStats = stats.get(endpoint);
+
+        if (body == null) {
+            endpointStats.skip();
+            return;
+        }
+
+        var request = HttpRequest.newBuilder(URI.create(baseUrl + endpoint.path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+
+        var start = System.nanoTime();
+
+        try {
+            var response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            endpointStats.record(System.nanoTime() - start, response.statusCode() < 400);
+        } catch (IOException e) {
+            endpointStats.record(System.nanoTime() - start, false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String credentials(String email) {
+        return "{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}";
+    }
+
+    private static List<String> seedUsers(JdbcTemplate jdbcTemplate, int users, int bcryptStrength) {
+        var encodedPassword = "{bcrypt}" + new BCryptPasswordEncoder(bcryptStrength).encode(PASSWORD);
+        var emails = new ArrayList<String>(users);
+
+        for (int i = 0; i < users; i++) {
+            emails.add("user-" + i + "@loadtest.local");
+        }
+
+        jdbcTemplate.batchUpdate("INSERT INTO tb_users (id, email, password, role) VALUES (?, ?, ?, 'CLIENT')",
+                emails, 1000, (statement, email) -> {
+                    statement.setObject(1, UUID.randomUUID());
+                    statement.setString(2, email);
+                    statement.setString(3, encodedPassword);
+                });
+
+        return List.copyOf(emails);
+    }
+
+    private static Endpoint[] parseMix(String mix) {
+        var weighted = new ArrayList<Endpoint>();
+
+        for (var entry : mix.split(",")) {
+            var parts = entry.trim().split(":");
+            var endpoint = Endpoint.valueOf(parts[0].trim().toUpperCase());
+
+            for (int i = 0; i < Integer.parseInt(parts[1].trim()); i++) {
+                weighted.add(endpoint);
+            }
+        }
+
+        if (weighted.isEmpty()) {
+            throw new IllegalArgumentException("The mix must give at least one endpoint a positive weight");
+        }
+
+        return weighted.toArray(Endpoint[]::new);
+    }
+
+    private static void report(List<EndpointStats.Result> results) {
+        System.out.printf("%n%-24s %10s %8s %8s %10s %10s %10s %10s %10s%n", "endpoint", "requests", "errors",
+                "skipped", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+
+        for (var result : results) {
+            System.out.printf("%-24s %10d %8d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n", result.endpoint(),
+                    result.requests(), result.errors(), result.skipped(), result.throughput(), result.p50Millis(),
+                    result.p99Millis(), result.p999Millis(), result.maxMillis());
+        }
+    }
+
+    private static Path writePem(Path path, String type, byte[] encoded) throws IOException {
+        var body = Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(encoded);
+        Files.writeString(path, "-----BEGIN " + type + "-----\n" + body + "\n-----END " + type + "-----\n");
+        return path;
+    }
+}
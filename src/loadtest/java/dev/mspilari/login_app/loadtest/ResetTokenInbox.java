@@ -0,0 +1,56 @@
+package dev.mspilari.login_app.loadtest;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.regex.Pattern;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.GreenMailUtil;
+
+// Collects the tokens from the reset emails received by GreenMail so reset-password requests can use them.
+final class ResetTokenInbox implements AutoCloseable {
+
+    private static final Pattern TOKEN = Pattern.compile("token=([A-Za-z0-9_-]+)");
+
+    private final GreenMail greenMail;
+
+    private final Queue<String> tokens = new ConcurrentLinkedQueue<>();
+
+    private final Thread harvester;
+
+    private int seen;
+
+    ResetTokenInbox(GreenMail greenMail) {
+        this.greenMail = greenMail;
+        this.harvester = Thread.ofPlatform().name("reset-token-inbox").daemon(true).start(this::harvest);
+    }
+
+    String poll() {
+        return tokens.poll();
+    }
+
+    private void harvest() {
+        while (!Thread.currentThread().isInterrupted()) {
+            if (!greenMail.waitForIncomingEmail(1000, seen + 1)) {
+                continue;
+            }
+
+            var messages = greenMail.getReceivedMessages();
+
+            for (int i = seen; i < messages.length; i++) {
+                var matcher = TOKEN.matcher(GreenMailUtil.getBody(messages[i]));
+
+                if (matcher.find()) {
+                    tokens.offer(matcher.group(1));
+                }
+            }
+            seen = messages.length;
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        harvester.interrupt();
+        harvester.join(2000);
+    }
+}
@@ -2,8 +2,10 @@ package dev.mspilari.login_app;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class LoginAppApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,45 @@
+package dev.mspilari.login_app.configs;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import dev.mspilari.login_app.domains.lockout.repositories.AttemptStore;
+import dev.mspilari.login_app.domains.lockout.repositories.InMemoryAttemptStore;
+import dev.mspilari.login_app.domains.lockout.repositories.JdbcAttemptStore;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class AttemptStoreConfig {
+
+    @Value("${login.lockout.retention-seconds:86400}")
+    private long retentionSeconds;
+
+    @Value("${login.lockout.max-entries:100000}")
+    private int maxEntries;
+
+    @Value("${login.lockout.jdbc.refresh-overlap-millis:5000}")
+    private long refreshOverlapMillis;
+
+    @Value("${login.lockout.jdbc.batch-size:100}")
+    private int batchSize;
+
+    @Bean
+    @ConditionalOnProperty(name = "login.lockout.store", havingValue = "memory", matchIfMissing = true)
+    public AttemptStore inMemoryAttemptStore(MeterRegistry meterRegistry) {
+        return new InMemoryAttemptStore(Duration.ofSeconds(retentionSeconds), maxEntries, meterRegistry,
+                Clock.systemUTC());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "login.lockout.store", havingValue = "jdbc")
+    public AttemptStore jdbcAttemptStore(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        return new JdbcAttemptStore(jdbcTemplate, Duration.ofSeconds(retentionSeconds),
+                Duration.ofMillis(refreshOverlapMillis), batchSize, meterRegistry);
+    }
+}
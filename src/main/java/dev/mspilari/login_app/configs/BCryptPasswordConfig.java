@@ -1,14 +0,0 @@
-package dev.mspilari.login_app.configs;
-
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-
-@Configuration
-public class BCryptPasswordConfig {
-
-    @Bean
-    public BCryptPasswordEncoder bPasswordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
-}
@@ -0,0 +1,59 @@
+package dev.mspilari.login_app.configs;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import dev.mspilari.login_app.domains.user.repositories.CredentialCache;
+import dev.mspilari.login_app.domains.user.repositories.InMemoryCredentialCache;
+import dev.mspilari.login_app.domains.user.repositories.NoOpCredentialCache;
+import dev.mspilari.login_app.domains.user.repositories.PostgresNotifyCredentialCache;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class CredentialCacheConfig {
+
+    @Value("${user.credential-cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${user.credential-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${user.credential-cache.postgres.poll-millis:1000}")
+    private int pollMillis;
+
+    @Value("${user.credential-cache.postgres.reconnect-millis:5000}")
+    private long reconnectMillis;
+
+    // Single node only: nothing tells the other replicas to drop an entry after a reset or a hash upgrade.
+    @Bean
+    @ConditionalOnProperty(name = "user.credential-cache.store", havingValue = "memory")
+    public CredentialCache inMemoryCredentialCache(MeterRegistry meterRegistry) {
+        return new InMemoryCredentialCache(maxEntries, Duration.ofSeconds(ttlSeconds), meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "user.credential-cache.store", havingValue = "postgres", matchIfMissing = true)
+    public CredentialCache postgresNotifyCredentialCache(JdbcTemplate jdbcTemplate,
+            DataSourceProperties dataSourceProperties, MeterRegistry meterRegistry) {
+        var listenerDataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(SimpleDriverDataSource.class)
+                .build();
+
+        return new PostgresNotifyCredentialCache(
+                new InMemoryCredentialCache(maxEntries, Duration.ofSeconds(ttlSeconds), meterRegistry),
+                jdbcTemplate, listenerDataSource, pollMillis, reconnectMillis, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "user.credential-cache.store", havingValue = "none")
+    public CredentialCache noOpCredentialCache() {
+        return new NoOpCredentialCache();
+    }
+}
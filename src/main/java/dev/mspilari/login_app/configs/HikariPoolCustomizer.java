@@ -0,0 +1,59 @@
+package dev.mspilari.login_app.configs;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import dev.mspilari.login_app.utils.ConnectionHoldMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Component
+public class HikariPoolCustomizer implements BeanPostProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(HikariPoolCustomizer.class);
+
+    @Value("${datasource.pool.size:0}")
+    private int poolSize;
+
+    @Value("${server.tomcat.threads.max:200}")
+    private int maxRequestThreads;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public HikariPoolCustomizer(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof HikariDataSource dataSource) {
+            var size = poolSize();
+
+            // A fixed-size pool: connections are cheap to keep and slow to open under a burst.
+            dataSource.setMaximumPoolSize(size);
+            dataSource.setMinimumIdle(size);
+            // Set before Spring Boot binds its own factory, which it skips when one is already present.
+            dataSource.setMetricsTrackerFactory(new ConnectionHoldMetricsTrackerFactory(meterRegistry::getObject));
+
+            logger.info("Sized connection pool {} to {} connections", beanName, size);
+        }
+
+        return bean;
+    }
+
+    int poolSize() {
+        if (poolSize > 0) {
+            return poolSize;
+        }
+
+        // Statements are short and CPU or disk bound on the database, so more connections than it has cores
+        // only add queuing there; there is also no use for more than one connection per request thread.
+        return Math.min(Runtime.getRuntime().availableProcessors() * 2 + 1, maxRequestThreads);
+    }
+}
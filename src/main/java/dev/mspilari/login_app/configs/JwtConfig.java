@@ -1,39 +1,75 @@
 package dev.mspilari.login_app.configs;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
-import org.springframework.security.oauth2.jwt.JwtEncoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
-import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.nimbusds.jose.jwk.JWK;
+
+import dev.mspilari.login_app.utils.JwtKeyRing;
+import dev.mspilari.login_app.utils.SignedJwtDecoder;
 
 @Configuration
 public class JwtConfig {
-    @Value("${jwt.public.key}")
+    @Value("${jwt.algorithm:RS256}")
+    private String algorithm;
+
+    @Value("${jwt.public.key:#{null}}")
     private RSAPublicKey publicKey;
 
-    @Value("${jwt.private.key}")
+    @Value("${jwt.private.key:#{null}}")
     private RSAPrivateKey privateKey;
 
+    @Value("${jwt.jwk:#{null}}")
+    private Resource jwk;
+
+    @Value("${jwt.expiration:300}")
+    private Long jwtExpiration;
+
+    @Value("${jwt.rotation.enabled:false}")
+    private boolean rotationEnabled;
+
+    @Value("${jwt.rotation.interval-seconds:86400}")
+    private long rotationIntervalSeconds;
+
+    @Value("${jwt.jwks.max-age-seconds:300}")
+    private long jwksMaxAgeSeconds;
+
     @Bean
-    public JwtEncoder jwtEncoder() {
-        var jwk = new RSAKey.Builder(this.publicKey).privateKey(this.privateKey).build();
+    public JwtKeyMaterial jwtKeyMaterial() {
+        if (this.jwk == null) {
+            if (!"RS256".equals(this.algorithm)) {
+                throw new IllegalStateException("jwt.jwk is required when jwt.algorithm is " + this.algorithm);
+            }
+            return JwtKeyMaterial.rsa(this.publicKey, this.privateKey);
+        }
 
-        var jwks = new ImmutableJWKSet<>(new JWKSet(jwk));
+        try {
+            return JwtKeyMaterial.of(this.algorithm, JWK.parse(this.jwk.getContentAsString(StandardCharsets.UTF_8)));
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Unable to read jwt.jwk from " + this.jwk, e);
+        }
+    }
 
-        return new NimbusJwtEncoder(jwks);
+    @Bean
+    public JwtKeyRing jwtKeyRing() {
+        return new JwtKeyRing(jwtKeyMaterial(), this.rotationEnabled, Duration.ofSeconds(this.rotationIntervalSeconds),
+                Duration.ofSeconds(this.jwksMaxAgeSeconds), Duration.ofSeconds(this.jwtExpiration + 60),
+                Clock.systemUTC());
     }
 
     @Bean
     public JwtDecoder jwtDecoder() {
-        return NimbusJwtDecoder.withPublicKey(this.publicKey).build();
+        return new SignedJwtDecoder(jwtKeyRing());
     }
 }
@@ -0,0 +1,129 @@
+package dev.mspilari.login_app.configs;
+
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.Ed25519Verifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.crypto.factories.DefaultJWSSignerFactory;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.OctetKeyPairGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+
+public record JwtKeyMaterial(JWSAlgorithm algorithm, JWK jwk) {
+
+    public static JwtKeyMaterial rsa(RSAPublicKey publicKey, RSAPrivateKey privateKey) {
+        if (publicKey == null || privateKey == null) {
+            throw new IllegalStateException("jwt.public.key and jwt.private.key are required for RS256");
+        }
+
+        return new JwtKeyMaterial(JWSAlgorithm.RS256, new RSAKey.Builder(publicKey).privateKey(privateKey).build());
+    }
+
+    public static JwtKeyMaterial of(String algorithm, JWK jwk) {
+        var expected = switch (algorithm) {
+            case "RS256" -> JWSAlgorithm.RS256;
+            case "ES256" -> JWSAlgorithm.ES256;
+            case "Ed25519", "EdDSA" -> JWSAlgorithm.EdDSA;
+            default -> throw new IllegalStateException("Unsupported jwt.algorithm: " + algorithm);
+        };
+
+        var matches = switch (jwk) {
+            case RSAKey rsaKey -> expected == JWSAlgorithm.RS256;
+            case ECKey ecKey -> expected == JWSAlgorithm.ES256 && Curve.P_256.equals(ecKey.getCurve());
+            case OctetKeyPair okp -> expected == JWSAlgorithm.EdDSA && Curve.Ed25519.equals(okp.getCurve());
+            default -> false;
+        };
+
+        if (!matches || !jwk.isPrivate()) {
+            throw new IllegalStateException("jwt.jwk must be a private " + algorithm + " key");
+        }
+
+        return new JwtKeyMaterial(expected, jwk);
+    }
+
+    public JWSSigner signer() {
+        try {
+            return new DefaultJWSSignerFactory().createJWSSigner(jwk, algorithm);
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Unable to create JWS signer for " + algorithm, e);
+        }
+    }
+
+    public JWSVerifier verifier() {
+        try {
+            return switch (jwk) {
+                case RSAKey rsaKey -> new RSASSAVerifier(rsaKey);
+                case ECKey ecKey -> new ECDSAVerifier(ecKey);
+                case OctetKeyPair okp -> new Ed25519Verifier(okp.toPublicJWK());
+                default -> throw new IllegalStateException("Unsupported key type " + jwk.getKeyType());
+            };
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Unable to create JWS verifier for " + algorithm, e);
+        }
+    }
+
+    public static JwtKeyMaterial generate(JWSAlgorithm algorithm) {
+        try {
+            JWK generated;
+
+            if (JWSAlgorithm.RS256.equals(algorithm)) {
+                generated = new RSAKeyGenerator(2048).keyIDFromThumbprint(true).generate();
+            } else if (JWSAlgorithm.ES256.equals(algorithm)) {
+                generated = new ECKeyGenerator(Curve.P_256).keyIDFromThumbprint(true).generate();
+            } else if (JWSAlgorithm.EdDSA.equals(algorithm)) {
+                generated = new OctetKeyPairGenerator(Curve.Ed25519).keyIDFromThumbprint(true).generate();
+            } else {
+                throw new IllegalStateException("Unsupported algorithm " + algorithm);
+            }
+
+            return new JwtKeyMaterial(algorithm, generated);
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Unable to generate " + algorithm + " key", e);
+        }
+    }
+
+    public JwtKeyMaterial withThumbprintKeyId() {
+        if (jwk.getKeyID() != null) {
+            return this;
+        }
+
+        try {
+            var kid = jwk.computeThumbprint().toString();
+
+            JWK withKid = switch (jwk) {
+                case RSAKey rsaKey -> new RSAKey.Builder(rsaKey).keyID(kid).build();
+                case ECKey ecKey -> new ECKey.Builder(ecKey).keyID(kid).build();
+                case OctetKeyPair okp -> new OctetKeyPair.Builder(okp).keyID(kid).build();
+                default -> throw new IllegalStateException("Unsupported key type " + jwk.getKeyType());
+            };
+
+            return new JwtKeyMaterial(algorithm, withKid);
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Unable to compute key thumbprint", e);
+        }
+    }
+
+    public String kid() {
+        return jwk.getKeyID();
+    }
+
+    public JWSHeader header() {
+        return new JWSHeader.Builder(algorithm).keyID(jwk.getKeyID()).build();
+    }
+
+    public JWK publicJwk() {
+        return jwk.toPublicJWK();
+    }
+}
@@ -0,0 +1,72 @@
+package dev.mspilari.login_app.configs;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import dev.mspilari.login_app.utils.BCryptStrengthCalibrator;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class PasswordEncoderConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordEncoderConfig.class);
+
+    @Value("${password.encoder.id:bcrypt}")
+    private String encoderId;
+
+    @Value("${password.bcrypt.strength:10}")
+    private int bcryptStrength;
+
+    // Opt-in: each node would otherwise pick its own cost from its hardware and load at boot.
+    @Value("${password.bcrypt.calibrate:false}")
+    private boolean calibrate;
+
+    @Value("${password.bcrypt.max-strength:16}")
+    private int bcryptMaxStrength;
+
+    @Value("${password.hashing.target-millis:250}")
+    private long targetMillis;
+
+    @Bean
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        var strength = calibrate ? calibrateBCryptStrength() : bcryptStrength;
+        logger.info("Hashing new BCrypt passwords with strength {}", strength);
+        Gauge.builder("password.bcrypt.strength", () -> strength).register(meterRegistry);
+
+        var bcrypt = new BCryptPasswordEncoder(strength);
+        var encoders = Map.<String, PasswordEncoder>of(
+                "bcrypt", bcrypt,
+                "argon2", Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8(),
+                "pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+
+        if (!encoders.containsKey(encoderId)) {
+            throw new IllegalStateException("Unsupported password.encoder.id " + encoderId);
+        }
+
+        var passwordEncoder = new DelegatingPasswordEncoder(encoderId, encoders);
+        passwordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        return passwordEncoder;
+    }
+
+    // The configured strength is the floor, so calibrating can raise the cost but never lower it.
+    private int calibrateBCryptStrength() {
+        var strength = new BCryptStrengthCalibrator().calibrate(Duration.ofMillis(targetMillis), bcryptStrength,
+                Math.max(bcryptStrength, bcryptMaxStrength));
+        logger.info("Calibrated BCrypt strength {} for a {} ms hashing budget; set password.bcrypt.strength={} "
+                + "and turn calibration off to use it on every node", strength, targetMillis, strength);
+        return strength;
+    }
+}
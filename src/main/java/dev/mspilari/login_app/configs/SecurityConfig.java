@@ -1,35 +1,118 @@
 package dev.mspilari.login_app.configs;
 
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.security.web.context.NullSecurityContextRepository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.mspilari.login_app.filters.RateLimitFilter;
+import dev.mspilari.login_app.utils.CachingJwtDecoder;
+import dev.mspilari.login_app.utils.TokenBucketLimiter;
+import dev.mspilari.login_app.utils.TokenBucketLimiter.Overflow;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
 public class SecurityConfig {
 
+    @Value("${jwt.decoder.cache.max-size:10000}")
+    private int jwtDecoderCacheMaxSize;
+
+    @Value("${rate-limit.enabled:true}")
+    private boolean rateLimitEnabled;
+
+    @Value("${rate-limit.ip.capacity:20}")
+    private int ipCapacity;
+
+    @Value("${rate-limit.ip.replenish-millis:3000}")
+    private long ipReplenishMillis;
+
+    @Value("${rate-limit.email.capacity:5}")
+    private int emailCapacity;
+
+    @Value("${rate-limit.email.replenish-millis:60000}")
+    private long emailReplenishMillis;
+
+    @Value("${rate-limit.max-buckets:100000}")
+    private int maxBuckets;
+
+    @Value("${rate-limit.max-body-bytes:4096}")
+    private int maxBodyBytes;
+
     private JwtConfig jwtConfig;
 
-    public SecurityConfig(JwtConfig jwtConfig) {
+    private MeterRegistry meterRegistry;
+
+    private ObjectMapper objectMapper;
+
+    public SecurityConfig(JwtConfig jwtConfig, MeterRegistry meterRegistry, ObjectMapper objectMapper) {
         this.jwtConfig = jwtConfig;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
     }
 
+    // The auth endpoints authenticate nobody: no session, security context, request cache or token parsing.
     @Bean
+    @Order(1)
+    public SecurityFilterChain publicAuthFilterChain(HttpSecurity http) throws Exception {
+        http
+                .securityMatchers(matchers -> matchers.requestMatchers(HttpMethod.POST, "/user/register",
+                        "/user/login", "/user/refresh", "/user/redeem-password", "/user/reset-password")
+                        .requestMatchers(HttpMethod.GET, "/.well-known/jwks.json"))
+                .csrf(csrf -> csrf.disable())
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .securityContext(context -> context.securityContextRepository(new NullSecurityContextRepository()))
+                .requestCache(cache -> cache.disable())
+                .anonymous(anonymous -> anonymous.disable())
+                .logout(logout -> logout.disable())
+                .authorizeHttpRequests(auth -> auth.anyRequest().permitAll());
+
+        if (rateLimitEnabled) {
+            http.addFilterBefore(rateLimitFilter(), AuthorizationFilter.class);
+        }
+
+        return http.build();
+    }
+
+    @Bean
+    @Order(2)
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        var jwtDecoder = new CachingJwtDecoder(jwtConfig.jwtDecoder(), jwtDecoderCacheMaxSize, meterRegistry);
+
         http
                 .csrf(csrf -> csrf.disable())
-                .authorizeHttpRequests(auth -> auth.requestMatchers(HttpMethod.POST, "/user/register").permitAll()
-                        .requestMatchers(HttpMethod.POST, "/user/login").permitAll()
-                        .requestMatchers(HttpMethod.POST, "/user/redeem-password").permitAll()
-                        .requestMatchers(HttpMethod.POST, "/user/reset-password").permitAll()
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .requestCache(cache -> cache.disable())
+                .logout(logout -> logout.disable())
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
                         .anyRequest().authenticated())
-                .oauth2ResourceServer(config -> config.jwt(jwt -> jwt.decoder(jwtConfig.jwtDecoder())));
+                .oauth2ResourceServer(config -> config.jwt(jwt -> jwt.decoder(jwtDecoder)));
 
         return http.build();
     }
+
+    private RateLimitFilter rateLimitFilter() {
+        var ipLimiter = new TokenBucketLimiter("ip", ipCapacity, Duration.ofMillis(ipReplenishMillis), maxBuckets,
+                Overflow.EVICT, meterRegistry);
+        // Spraying random emails must not lock out new logins: past the bound, the IP limit still applies.
+        var emailLimiter = new TokenBucketLimiter("email", emailCapacity, Duration.ofMillis(emailReplenishMillis),
+                maxBuckets, Overflow.ALLOW, meterRegistry);
+
+        return new RateLimitFilter(ipLimiter, emailLimiter, maxBodyBytes, objectMapper);
+    }
 }
@@ -0,0 +1,35 @@
+package dev.mspilari.login_app.configs;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import dev.mspilari.login_app.domains.token.repositories.PasswordResetTokenRepository;
+import dev.mspilari.login_app.domains.token.repositories.RefreshTokenRepository;
+import dev.mspilari.login_app.utils.BatchSweeper;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class TokenSweeperConfig {
+
+    @Bean
+    public BatchSweeper resetTokenSweeper(PasswordResetTokenRepository passwordResetTokenRepository,
+            Environment environment, DataSource dataSource, MeterRegistry meterRegistry) {
+        return new BatchSweeper("reset-token.sweeper", "reset.tokens", "expired reset tokens",
+                passwordResetTokenRepository::deleteExpired, Duration.ofSeconds(60), environment, dataSource,
+                meterRegistry);
+    }
+
+    // Starts later than the reset token sweep so both do not hit the database together after a deploy.
+    @Bean
+    public BatchSweeper refreshTokenSweeper(RefreshTokenRepository refreshTokenRepository, Environment environment,
+            DataSource dataSource, MeterRegistry meterRegistry) {
+        return new BatchSweeper("refresh-token.sweeper", "refresh.tokens", "expired or revoked refresh tokens",
+                refreshTokenRepository::deleteExpiredOrRevoked, Duration.ofSeconds(90), environment, dataSource,
+                meterRegistry);
+    }
+}
@@ -0,0 +1,216 @@
+package dev.mspilari.login_app.domains.email.services;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import dev.mspilari.login_app.exceptions.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+@Component
+public class EmailDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailDispatcher.class);
+
+    private record Outgoing(SimpleMailMessage mail, Runnable onFailure) {
+    }
+
+    @Value("${mail.queue.capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${mail.queue.offer-timeout-millis:50}")
+    private long offerTimeoutMillis;
+
+    @Value("${mail.queue.retry-after-seconds:5}")
+    private long retryAfterSeconds;
+
+    @Value("${mail.dispatcher.threads:2}")
+    private int dispatcherThreads;
+
+    @Value("${mail.dispatcher.batch-size:50}")
+    private int batchSize;
+
+    @Value("${mail.dispatcher.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${mail.dispatcher.backoff-millis:500}")
+    private long backoffMillis;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final JavaMailSender mailSender;
+
+    private final MeterRegistry meterRegistry;
+
+    private BlockingQueue<Outgoing> queue;
+
+    private ExecutorService executor;
+
+    private volatile boolean running;
+
+    private DistributionSummary batchSizeSummary;
+
+    private Timer sendTimer;
+
+    private Counter rejectedCounter;
+
+    private Counter failedCounter;
+
+    public EmailDispatcher(JavaMailSender mailSender, MeterRegistry meterRegistry) {
+        this.mailSender = mailSender;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSizeSummary = DistributionSummary.builder("mail.batch.size").register(meterRegistry);
+        this.sendTimer = Timer.builder("mail.send.latency").publishPercentileHistogram().register(meterRegistry);
+        this.rejectedCounter = Counter.builder("mail.rejected").register(meterRegistry);
+        this.failedCounter = Counter.builder("mail.failed").register(meterRegistry);
+        meterRegistry.gauge("mail.queue.depth", queue, BlockingQueue::size);
+
+        var threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("mail-dispatcher-", 0).factory()
+                : Thread.ofPlatform().name("mail-dispatcher-", 0).daemon(true).factory();
+
+        this.running = true;
+        this.executor = Executors.newFixedThreadPool(dispatcherThreads, threadFactory);
+
+        for (int i = 0; i < dispatcherThreads; i++) {
+            executor.execute(this::dispatchLoop);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        this.running = false;
+        executor.shutdown();
+
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            logger.warn("Mail dispatcher stopped with {} messages still queued", queue.size());
+            executor.shutdownNow();
+        }
+    }
+
+    public void enqueue(SimpleMailMessage mail) {
+        enqueue(mail, () -> {
+        });
+    }
+
+    // onFailure runs on a dispatcher thread once every attempt to send the mail has failed.
+    public void enqueue(SimpleMailMessage mail, Runnable onFailure) {
+        boolean accepted;
+
+        try {
+            accepted = queue.offer(new Outgoing(mail, onFailure), offerTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+
+        if (!accepted) {
+            rejectedCounter.increment();
+            throw new ServiceBusyException("Mail queue is full, try again later", retryAfterSeconds);
+        }
+    }
+
+    private void dispatchLoop() {
+        var batch = new ArrayList<Outgoing>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                var first = queue.poll(1, TimeUnit.SECONDS);
+
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+
+                sendBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Unexpected error while dispatching {} emails", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void sendBatch(List<Outgoing> batch) throws InterruptedException {
+        batchSizeSummary.record(batch.size());
+
+        var pending = batch.stream().map(Outgoing::mail).toArray(SimpleMailMessage[]::new);
+
+        for (int attempt = 1;; attempt++) {
+            var sample = Timer.start(meterRegistry);
+
+            try {
+                mailSender.send(pending);
+                return;
+            } catch (MailSendException e) {
+                var failed = e.getFailedMessages().keySet().stream()
+                        .filter(SimpleMailMessage.class::isInstance)
+                        .map(SimpleMailMessage.class::cast)
+                        .toArray(SimpleMailMessage[]::new);
+
+                if (failed.length > 0) {
+                    pending = failed;
+                }
+
+                logger.warn("Attempt {} to send {} emails failed: {}", attempt, pending.length, e.getMessage());
+            } catch (MailException e) {
+                logger.warn("Attempt {} to send {} emails failed: {}", attempt, pending.length, e.getMessage());
+            } finally {
+                sample.stop(sendTimer);
+            }
+
+            if (attempt >= maxAttempts) {
+                logger.error("Giving up on {} emails after {} attempts", pending.length, attempt);
+                failedCounter.increment(pending.length);
+                notifyFailures(batch, pending);
+                return;
+            }
+
+            Thread.sleep(backoffMillis << (attempt - 1));
+        }
+    }
+
+    private void notifyFailures(List<Outgoing> batch, SimpleMailMessage[] failed) {
+        var callbacks = new IdentityHashMap<SimpleMailMessage, Runnable>(batch.size());
+        batch.forEach(outgoing -> callbacks.put(outgoing.mail(), outgoing.onFailure()));
+
+        for (var mail : failed) {
+            try {
+                callbacks.getOrDefault(mail, () -> {
+                }).run();
+            } catch (RuntimeException e) {
+                logger.warn("Failure callback for an undelivered email failed: {}", e.getMessage());
+            }
+        }
+    }
+}
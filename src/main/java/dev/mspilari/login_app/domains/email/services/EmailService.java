@@ -1,25 +1,75 @@
 package dev.mspilari.login_app.domains.email.services;
 
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import dev.mspilari.login_app.exceptions.ServiceBusyException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 @Service
 public class EmailService {
 
-    private JavaMailSender mailSender;
+    private EmailDispatcher emailDispatcher;
+
+    private final MeterRegistry meterRegistry;
 
-    public EmailService(JavaMailSender mailSender) {
-        this.mailSender = mailSender;
+    public EmailService(EmailDispatcher emailDispatcher, MeterRegistry meterRegistry) {
+        this.emailDispatcher = emailDispatcher;
+        this.meterRegistry = meterRegistry;
     }
 
     public void sendEmail(String email, String subject, String body) {
+        sendEmail(email, subject, body, () -> {
+        });
+    }
+
+    // onFailure runs later, on a dispatcher thread, if the mail cannot be delivered after it was queued.
+    public void sendEmail(String email, String subject, String body, Runnable onFailure) {
         SimpleMailMessage mail = new SimpleMailMessage();
         mail.setTo(email);
         mail.setFrom("app_login@email.com");
         mail.setSubject(subject);
         mail.setText(body);
 
-        mailSender.send(mail);
+        // Inside a transaction the mail waits for the commit: the offer can wait up to its timeout for room, which
+        // must not hold a pooled connection, and a rollback must not mail a token that was never stored.
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueueAfterCommit(mail, onFailure);
+                }
+            });
+            return;
+        }
+
+        enqueue(mail, onFailure);
+    }
+
+    // The commit can no longer be undone, so a rejected mail is reported through onFailure as well as to the caller.
+    private void enqueueAfterCommit(SimpleMailMessage mail, Runnable onFailure) {
+        try {
+            enqueue(mail, onFailure);
+        } catch (ServiceBusyException e) {
+            onFailure.run();
+            throw e;
+        }
+    }
+
+    private void enqueue(SimpleMailMessage mail, Runnable onFailure) {
+        var sample = Timer.start(meterRegistry);
+        var outcome = "queued";
+
+        try {
+            emailDispatcher.enqueue(mail, onFailure);
+        } catch (ServiceBusyException e) {
+            outcome = "rejected";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("mail.enqueue").tag("outcome", outcome).register(meterRegistry));
+        }
     }
 }
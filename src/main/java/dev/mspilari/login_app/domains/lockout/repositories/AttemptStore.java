@@ -0,0 +1,16 @@
+package dev.mspilari.login_app.domains.lockout.repositories;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+public interface AttemptStore {
+
+    long increment(String key, Duration window);
+
+    void reset(String key);
+
+    void lock(String key, Instant until);
+
+    Optional<Instant> lockedUntil(String key);
+}
@@ -0,0 +1,41 @@
+package dev.mspilari.login_app.domains.lockout.repositories;
+
+import java.time.Instant;
+import java.util.Optional;
+
+record Attempts(long windowStart, long count, long lockedUntil, long updatedAt) {
+
+    static long windowStart(long now, long windowMillis) {
+        return now - Math.floorMod(now, windowMillis);
+    }
+
+    Attempts add(long window, long delta, long now) {
+        if (window == windowStart) {
+            return new Attempts(window, count + delta, lockedUntil, now);
+        }
+        if (window > windowStart) {
+            return new Attempts(window, delta, lockedUntil, now);
+        }
+        return new Attempts(windowStart, count, lockedUntil, now);
+    }
+
+    Attempts lock(long until, long now) {
+        return new Attempts(windowStart, count, until, now);
+    }
+
+    long countIn(long window) {
+        return window == windowStart ? count : 0;
+    }
+
+    Optional<Instant> lockedUntilInstant() {
+        return lockedUntil > 0 ? Optional.of(Instant.ofEpochMilli(lockedUntil)) : Optional.empty();
+    }
+
+    boolean isIdle(long currentWindow, long now) {
+        return windowStart < currentWindow && lockedUntil < now;
+    }
+
+    boolean isExpired(long now, long retentionMillis) {
+        return updatedAt < now - retentionMillis && lockedUntil < now;
+    }
+}
@@ -0,0 +1,96 @@
+package dev.mspilari.login_app.domains.lockout.repositories;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+public class InMemoryAttemptStore implements AttemptStore {
+
+    private static final long SWEEP_INTERVAL_MILLIS = 1000;
+
+    private final long retentionMillis;
+
+    private final int maxEntries;
+
+    private final Clock clock;
+
+    private final ConcurrentHashMap<String, Attempts> attempts = new ConcurrentHashMap<>();
+
+    private final AtomicLong lastSweep = new AtomicLong();
+
+    private final Counter overflowCounter;
+
+    public InMemoryAttemptStore(Duration retention, int maxEntries, MeterRegistry meterRegistry, Clock clock) {
+        this.retentionMillis = retention.toMillis();
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        this.overflowCounter = Counter.builder("login.attempts.overflow").register(meterRegistry);
+        meterRegistry.gaugeMapSize("login.attempts.entries", Tags.empty(), attempts);
+    }
+
+    @Override
+    public long increment(String key, Duration window) {
+        var now = clock.millis();
+        var start = Attempts.windowStart(now, window.toMillis());
+
+        // A new key that finds the map full is counted but not kept, so it cannot reach a lockout here; existing
+        // counters and locks are never pushed out by it.
+        if (!attempts.containsKey(key) && attempts.size() >= maxEntries && !evictIdle(start, now)) {
+            overflowCounter.increment();
+            return 1;
+        }
+
+        return attempts.compute(key, (k, current) -> current == null
+                ? new Attempts(start, 1, 0, now)
+                : current.add(start, 1, now)).countIn(start);
+    }
+
+    @Override
+    public void reset(String key) {
+        attempts.remove(key);
+    }
+
+    @Override
+    public void lock(String key, Instant until) {
+        var now = clock.millis();
+
+        attempts.compute(key, (k, current) -> current == null
+                ? new Attempts(now, 0, until.toEpochMilli(), now)
+                : current.lock(until.toEpochMilli(), now));
+    }
+
+    @Override
+    public Optional<Instant> lockedUntil(String key) {
+        return Optional.ofNullable(attempts.get(key)).flatMap(Attempts::lockedUntilInstant);
+    }
+
+    @Scheduled(fixedDelayString = "${login.lockout.purge-interval-millis:60000}")
+    public void purgeExpired() {
+        var now = clock.millis();
+        attempts.values().removeIf(entry -> entry.isExpired(now, retentionMillis));
+    }
+
+    public int size() {
+        return attempts.size();
+    }
+
+    // Entries from an earlier window that are not locked count as zero, so they can go before retention ends.
+    private boolean evictIdle(long currentWindow, long now) {
+        var previous = lastSweep.get();
+
+        if (now - previous >= SWEEP_INTERVAL_MILLIS && lastSweep.compareAndSet(previous, now)) {
+            attempts.values().removeIf(entry -> entry.isIdle(currentWindow, now));
+        }
+
+        return attempts.size() < maxEntries;
+    }
+}
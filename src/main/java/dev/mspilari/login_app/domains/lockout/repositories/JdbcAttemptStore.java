@@ -0,0 +1,296 @@
+package dev.mspilari.login_app.domains.lockout.repositories;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+public class JdbcAttemptStore implements AttemptStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcAttemptStore.class);
+
+    private static final String UPDATE_ATTEMPTS = """
+            UPDATE tb_login_attempts
+            SET attempts = CASE WHEN window_start = ? THEN attempts + ? WHEN window_start > ? THEN attempts ELSE ? END,
+                window_start = CASE WHEN window_start > ? THEN window_start ELSE ? END,
+                updated_at = ?
+            WHERE attempt_key = ?""";
+
+    private static final String INSERT_ATTEMPTS = """
+            INSERT INTO tb_login_attempts (attempt_key, window_start, attempts, updated_at)
+            VALUES (?, ?, ?, ?)""";
+
+    private static final String INSERT_LOCK = """
+            INSERT INTO tb_login_attempts (attempt_key, window_start, attempts, locked_until, updated_at)
+            VALUES (?, ?, 0, ?, ?)""";
+
+    private static final String UPDATE_LOCK = """
+            UPDATE tb_login_attempts SET locked_until = ?, updated_at = ? WHERE attempt_key = ?""";
+
+    private static final String RESET_ATTEMPTS = """
+            UPDATE tb_login_attempts SET attempts = 0, locked_until = NULL, updated_at = ? WHERE attempt_key = ?""";
+
+    private static final String SELECT_CHANGED = """
+            SELECT attempt_key, window_start, attempts, locked_until, updated_at
+            FROM tb_login_attempts WHERE updated_at >= ?""";
+
+    private static final String DELETE_EXPIRED = """
+            DELETE FROM tb_login_attempts
+            WHERE updated_at < ? AND (locked_until IS NULL OR locked_until < ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final long retentionMillis;
+
+    private final long refreshOverlapMillis;
+
+    private final int batchSize;
+
+    private final Clock clock;
+
+    private final ConcurrentHashMap<String, Attempts> pending = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, Attempts> shared = new ConcurrentHashMap<>();
+
+    private final Set<String> pendingResets = ConcurrentHashMap.newKeySet();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private long lastRefresh;
+
+    private final Timer flushTimer;
+
+    private final DistributionSummary flushRows;
+
+    private final Counter flushFailures;
+
+    public JdbcAttemptStore(JdbcTemplate jdbcTemplate, Duration retention, Duration refreshOverlap, int batchSize,
+            MeterRegistry meterRegistry) {
+        this(jdbcTemplate, retention, refreshOverlap, batchSize, meterRegistry, Clock.systemUTC());
+    }
+
+    public JdbcAttemptStore(JdbcTemplate jdbcTemplate, Duration retention, Duration refreshOverlap, int batchSize,
+            MeterRegistry meterRegistry, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.retentionMillis = retention.toMillis();
+        this.refreshOverlapMillis = refreshOverlap.toMillis();
+        this.batchSize = batchSize;
+        this.clock = clock;
+        this.flushTimer = Timer.builder("login.attempts.flush").register(meterRegistry);
+        this.flushRows = DistributionSummary.builder("login.attempts.flush.rows").register(meterRegistry);
+        this.flushFailures = Counter.builder("login.attempts.flush.failures").register(meterRegistry);
+        meterRegistry.gaugeMapSize("login.attempts.pending", Tags.empty(), pending);
+        meterRegistry.gaugeMapSize("login.attempts.shared", Tags.empty(), shared);
+    }
+
+    @Override
+    public long increment(String key, Duration window) {
+        var now = clock.millis();
+        var start = Attempts.windowStart(now, window.toMillis());
+
+        var local = pending.compute(key, (k, current) -> current == null || current.windowStart() != start
+                ? new Attempts(start, 1, 0, now)
+                : current.add(start, 1, now));
+        var known = shared.get(key);
+
+        return local.count() + (known != null ? known.countIn(start) : 0);
+    }
+
+    @Override
+    public void reset(String key) {
+        pending.remove(key);
+        shared.remove(key);
+
+        // Queued even when this node has not seen the key yet: another node may have written its failures.
+        pendingResets.add(key);
+    }
+
+    @Override
+    public void lock(String key, Instant until) {
+        var now = clock.millis();
+        var lockedUntil = until.toEpochMilli();
+
+        shared.compute(key, (k, current) -> current == null
+                ? new Attempts(now, 0, lockedUntil, now)
+                : current.lock(lockedUntil, now));
+
+        try {
+            if (jdbcTemplate.update(UPDATE_LOCK, timestamp(lockedUntil), timestamp(now), key) == 0) {
+                try {
+                    jdbcTemplate.update(INSERT_LOCK, key, timestamp(now), timestamp(lockedUntil), timestamp(now));
+                } catch (DuplicateKeyException e) {
+                    jdbcTemplate.update(UPDATE_LOCK, timestamp(lockedUntil), timestamp(now), key);
+                }
+            }
+        } catch (DataAccessException e) {
+            flushFailures.increment();
+            logger.warn("Unable to share lockout for {}: {}", key, e.getMessage());
+        }
+    }
+
+    @Override
+    public Optional<Instant> lockedUntil(String key) {
+        return Optional.ofNullable(shared.get(key)).flatMap(Attempts::lockedUntilInstant);
+    }
+
+    @Scheduled(fixedDelayString = "${login.lockout.jdbc.flush-interval-millis:500}")
+    public void flush() {
+        flushLock.lock();
+
+        try {
+            flushTimer.record(() -> {
+                var now = clock.millis();
+                writeResets(now);
+                writePending(now);
+                refresh(now);
+            });
+        } catch (DataAccessException e) {
+            flushFailures.increment();
+            logger.warn("Unable to flush login attempts: {}", e.getMessage());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${login.lockout.purge-interval-millis:60000}")
+    public void purgeExpired() {
+        var now = clock.millis();
+
+        shared.values().removeIf(entry -> entry.isExpired(now, retentionMillis));
+
+        try {
+            jdbcTemplate.update(DELETE_EXPIRED, timestamp(now - retentionMillis), timestamp(now));
+        } catch (DataAccessException e) {
+            logger.warn("Unable to purge login attempts: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+
+    private void writeResets(long now) {
+        if (pendingResets.isEmpty()) {
+            return;
+        }
+
+        var keys = new ArrayList<String>();
+        for (var iterator = pendingResets.iterator(); iterator.hasNext();) {
+            keys.add(iterator.next());
+            iterator.remove();
+        }
+
+        jdbcTemplate.batchUpdate(RESET_ATTEMPTS, keys, batchSize, (ps, key) -> {
+            ps.setObject(1, timestamp(now));
+            ps.setString(2, key);
+        });
+        flushRows.record(keys.size());
+    }
+
+    private void writePending(long now) {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        var batch = new ArrayList<Map.Entry<String, Attempts>>();
+
+        for (var key : pending.keySet()) {
+            var delta = pending.remove(key);
+
+            if (delta != null) {
+                batch.add(Map.entry(key, delta));
+                shared.merge(key, delta, (known, local) -> known.add(local.windowStart(), local.count(), now));
+            }
+        }
+
+        var results = jdbcTemplate.batchUpdate(UPDATE_ATTEMPTS, batch, batchSize, (ps, entry) -> {
+            var start = timestamp(entry.getValue().windowStart());
+            var count = entry.getValue().count();
+            ps.setObject(1, start);
+            ps.setLong(2, count);
+            ps.setObject(3, start);
+            ps.setLong(4, count);
+            ps.setObject(5, start);
+            ps.setObject(6, start);
+            ps.setObject(7, timestamp(now));
+            ps.setString(8, entry.getKey());
+        });
+
+        var missing = new ArrayList<Map.Entry<String, Attempts>>();
+        var index = 0;
+        for (var chunk : results) {
+            for (var updated : chunk) {
+                if (updated == 0) {
+                    missing.add(batch.get(index));
+                }
+                index++;
+            }
+        }
+
+        insertMissing(missing, now);
+        flushRows.record(batch.size());
+    }
+
+    private void insertMissing(List<Map.Entry<String, Attempts>> missing, long now) {
+        for (var entry : missing) {
+            var start = timestamp(entry.getValue().windowStart());
+            var count = entry.getValue().count();
+
+            try {
+                jdbcTemplate.update(INSERT_ATTEMPTS, entry.getKey(), start, count, timestamp(now));
+            } catch (DuplicateKeyException e) {
+                jdbcTemplate.update(UPDATE_ATTEMPTS, start, count, start, count, start, start, timestamp(now),
+                        entry.getKey());
+            }
+        }
+    }
+
+    private void refresh(long now) {
+        var since = lastRefresh == 0 ? now - retentionMillis : lastRefresh - refreshOverlapMillis;
+
+        jdbcTemplate.query(SELECT_CHANGED, rs -> {
+            shared.put(rs.getString("attempt_key"), attempts(rs));
+        }, timestamp(since));
+
+        lastRefresh = now;
+    }
+
+    private static Attempts attempts(ResultSet rs) throws SQLException {
+        var lockedUntil = rs.getObject("locked_until", OffsetDateTime.class);
+
+        return new Attempts(
+                rs.getObject("window_start", OffsetDateTime.class).toInstant().toEpochMilli(),
+                rs.getLong("attempts"),
+                lockedUntil != null ? lockedUntil.toInstant().toEpochMilli() : 0,
+                rs.getObject("updated_at", OffsetDateTime.class).toInstant().toEpochMilli());
+    }
+
+    private static OffsetDateTime timestamp(long epochMillis) {
+        return OffsetDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+    }
+}
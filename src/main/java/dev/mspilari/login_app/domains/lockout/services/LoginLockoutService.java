@@ -0,0 +1,90 @@
+package dev.mspilari.login_app.domains.lockout.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import dev.mspilari.login_app.domains.lockout.repositories.AttemptStore;
+import dev.mspilari.login_app.exceptions.TooManyAttemptsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Service
+public class LoginLockoutService {
+
+    @Value("${login.lockout.max-failures:5}")
+    private long maxFailures;
+
+    // Failures from every address together; high enough that one client cannot lock someone else out.
+    @Value("${login.lockout.account-max-failures:100}")
+    private long accountMaxFailures;
+
+    @Value("${login.lockout.window-seconds:900}")
+    private long windowSeconds;
+
+    @Value("${login.lockout.duration-seconds:900}")
+    private long lockoutSeconds;
+
+    private final AttemptStore attemptStore;
+
+    private final Counter lockedCounter;
+
+    private final Counter blockedCounter;
+
+    public LoginLockoutService(AttemptStore attemptStore, MeterRegistry meterRegistry) {
+        this.attemptStore = attemptStore;
+        this.lockedCounter = Counter.builder("login.lockout").tag("result", "locked").register(meterRegistry);
+        this.blockedCounter = Counter.builder("login.lockout").tag("result", "blocked").register(meterRegistry);
+    }
+
+    public void checkNotLocked(String email, String clientIp) {
+        checkNotLocked(clientKey(email, clientIp));
+        checkNotLocked(accountKey(email));
+    }
+
+    public void recordFailure(String email, String clientIp) {
+        recordFailure(clientKey(email, clientIp), maxFailures);
+        recordFailure(accountKey(email), accountMaxFailures);
+    }
+
+    // Only the caller's own counter: a correct password from one address must not clear failures from others.
+    public void recordSuccess(String email, String clientIp) {
+        attemptStore.reset(clientKey(email, clientIp));
+    }
+
+    private void checkNotLocked(String key) {
+        var now = Instant.now();
+
+        attemptStore.lockedUntil(key)
+                .filter(now::isBefore)
+                .ifPresent(until -> {
+                    blockedCounter.increment();
+                    throw new TooManyAttemptsException("Too many failed login attempts, try again later",
+                            Math.max(1, Duration.between(now, until).toSeconds()));
+                });
+    }
+
+    private void recordFailure(String key, long limit) {
+        var failures = attemptStore.increment(key, Duration.ofSeconds(windowSeconds));
+
+        if (failures >= limit) {
+            attemptStore.lock(key, Instant.now().plusSeconds(lockoutSeconds));
+            lockedCounter.increment();
+        }
+    }
+
+    private static String clientKey(String email, String clientIp) {
+        return "login:" + clientIp + "|" + normalise(email);
+    }
+
+    private static String accountKey(String email) {
+        return "login:" + normalise(email);
+    }
+
+    private static String normalise(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,7 @@
+package dev.mspilari.login_app.domains.token.dto;
+
+import dev.mspilari.login_app.domains.user.enums.Role;
+
+public record RotatedRefreshTokenDto(String email, Role role, String refreshToken) {
+
+}
@@ -0,0 +1,113 @@
+package dev.mspilari.login_app.domains.token.repositories;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Repository
+public class PasswordResetTokenRepository {
+
+    // Namespaces the per-user advisory lock below; the second key is the user id's hash code.
+    private static final int RESET_TOKEN_LOCK = 0x52535431;
+
+    private static final String LOCK_USER = """
+            SELECT pg_advisory_xact_lock(?, ?)""";
+
+    private static final String INSERT_TOKEN = """
+            INSERT INTO tb_password_reset_tokens (token_hash, user_id, expires_at) VALUES (?, ?, ?)""";
+
+    private static final String INSERT_TOKEN_IF_NONE_RECENT = """
+            INSERT INTO tb_password_reset_tokens (token_hash, user_id, expires_at, created_at)
+            SELECT ?, ?, ?, ?
+            WHERE NOT EXISTS (
+                SELECT 1 FROM tb_password_reset_tokens
+                WHERE user_id = ? AND created_at > ? AND expires_at > ?
+            )""";
+
+    private static final String DELETE_TOKEN = """
+            DELETE FROM tb_password_reset_tokens WHERE token_hash = ?""";
+
+    private static final String SELECT_EXPIRES_AT = """
+            SELECT expires_at FROM tb_password_reset_tokens WHERE token_hash = ?""";
+
+    // Consumes the token, revokes the user's other reset tokens and refresh tokens and changes the password in one
+    // statement, so a session opened with the old password cannot outlive the reset.
+    private static final String CONSUME_TOKEN = """
+            WITH consumed AS (
+                DELETE FROM tb_password_reset_tokens
+                WHERE token_hash = ? AND expires_at > ?
+                RETURNING user_id
+            ), revoked AS (
+                DELETE FROM tb_password_reset_tokens t
+                USING consumed WHERE t.user_id = consumed.user_id AND t.token_hash <> ?
+            ), signed_out AS (
+                UPDATE tb_refresh_tokens r SET revoked_at = ?
+                FROM consumed WHERE r.user_id = consumed.user_id AND r.revoked_at IS NULL
+            )
+            UPDATE tb_users u SET password = ? FROM consumed WHERE u.id = consumed.user_id
+            RETURNING u.email""";
+
+    private static final String DELETE_EXPIRED_BATCH = """
+            DELETE FROM tb_password_reset_tokens WHERE token_hash IN (
+                SELECT token_hash FROM tb_password_reset_tokens
+                WHERE expires_at < ?
+                ORDER BY expires_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public PasswordResetTokenRepository(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public void insert(byte[] tokenHash, UUID userId, Instant expiresAt) {
+        jdbcTemplate.update(INSERT_TOKEN, tokenHash, userId, toTimestamp(expiresAt));
+    }
+
+    // Under READ COMMITTED, concurrent calls for one user would all pass NOT EXISTS. The lock makes them take turns,
+    // and the INSERT, as a later statement, sees the token committed by the previous one.
+    public boolean insertIfNoneSince(byte[] tokenHash, UUID userId, Instant expiresAt, Instant now, Instant since) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            jdbcTemplate.query(LOCK_USER, rs -> {
+            }, RESET_TOKEN_LOCK, userId.hashCode());
+
+            return jdbcTemplate.update(INSERT_TOKEN_IF_NONE_RECENT, tokenHash, userId, toTimestamp(expiresAt),
+                    toTimestamp(now), userId, toTimestamp(since), toTimestamp(now)) > 0;
+        }));
+    }
+
+    public void delete(byte[] tokenHash) {
+        jdbcTemplate.update(DELETE_TOKEN, (Object) tokenHash);
+    }
+
+    public Optional<Instant> findExpiresAt(byte[] tokenHash) {
+        return jdbcTemplate.query(SELECT_EXPIRES_AT, rs -> rs.next()
+                ? Optional.of(rs.getObject(1, OffsetDateTime.class).toInstant())
+                : Optional.empty(), (Object) tokenHash);
+    }
+
+    public Optional<String> consume(byte[] tokenHash, Instant now, String encodedPassword) {
+        return jdbcTemplate.query(CONSUME_TOKEN, rs -> rs.next() ? Optional.of(rs.getString(1)) : Optional.empty(),
+                tokenHash, toTimestamp(now), tokenHash, toTimestamp(now), encodedPassword);
+    }
+
+    public int deleteExpired(Instant cutoff, int limit) {
+        return jdbcTemplate.update(DELETE_EXPIRED_BATCH, toTimestamp(cutoff), limit);
+    }
+
+    private static OffsetDateTime toTimestamp(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,40 @@
+package dev.mspilari.login_app.domains.token.repositories;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import dev.mspilari.login_app.domains.token.entity.RefreshTokenEntity;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshTokenEntity, UUID> {
+    @Query("SELECT r FROM RefreshTokenEntity r JOIN FETCH r.user WHERE r.tokenHash = :tokenHash")
+    Optional<RefreshTokenEntity> findByTokenHash(String tokenHash);
+
+    @Modifying
+    @Query("UPDATE RefreshTokenEntity r SET r.usedAt = :now WHERE r.id = :id AND r.usedAt IS NULL AND r.revokedAt IS NULL")
+    int markUsed(UUID id, Instant now);
+
+    @Modifying
+    @Query("UPDATE RefreshTokenEntity r SET r.revokedAt = :now WHERE r.familyId = :familyId AND r.revokedAt IS NULL")
+    int revokeFamily(UUID familyId, Instant now);
+
+    // Expired tokens can no longer be used and revoked ones are rejected either way. Used tokens stay until they
+    // expire, since presenting one again is what reveals a stolen token.
+    @Transactional
+    @Modifying
+    @Query(value = """
+            DELETE FROM tb_refresh_tokens WHERE id IN (
+                SELECT id FROM tb_refresh_tokens
+                WHERE expires_at < :cutoff OR revoked_at IS NOT NULL
+                LIMIT :batchSize
+                FOR UPDATE SKIP LOCKED
+            )""", nativeQuery = true)
+    int deleteExpiredOrRevoked(Instant cutoff, int batchSize);
+}
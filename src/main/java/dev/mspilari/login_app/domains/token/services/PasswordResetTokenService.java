@@ -0,0 +1,139 @@
+package dev.mspilari.login_app.domains.token.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import dev.mspilari.login_app.domains.token.repositories.PasswordResetTokenRepository;
+import dev.mspilari.login_app.exceptions.OperationRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Service
+public class PasswordResetTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    @Value("${token.expiration.seconds:300}")
+    private Long tokenExpirationSeconds;
+
+    @Value("${reset-token.dedup-window-seconds:60}")
+    private long dedupWindowSeconds;
+
+    private final PasswordResetTokenRepository passwordResetTokenRepository;
+
+    private final Clock clock;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private final Counter issuedCounter;
+
+    private final Counter redeemedCounter;
+
+    private final Counter invalidCounter;
+
+    private final Counter expiredCounter;
+
+    private final Counter sentCounter;
+
+    private final Counter suppressedCounter;
+
+    private final Counter undeliveredCounter;
+
+    @Autowired
+    public PasswordResetTokenService(PasswordResetTokenRepository passwordResetTokenRepository,
+            MeterRegistry meterRegistry) {
+        this(passwordResetTokenRepository, meterRegistry, Clock.systemUTC());
+    }
+
+    PasswordResetTokenService(PasswordResetTokenRepository passwordResetTokenRepository, MeterRegistry meterRegistry,
+            Clock clock) {
+        this.passwordResetTokenRepository = passwordResetTokenRepository;
+        this.clock = clock;
+        this.issuedCounter = Counter.builder("auth.reset.tokens").tag("result", "issued").register(meterRegistry);
+        this.redeemedCounter = Counter.builder("auth.reset.tokens").tag("result", "redeemed").register(meterRegistry);
+        this.invalidCounter = Counter.builder("auth.reset.tokens").tag("result", "invalid").register(meterRegistry);
+        this.expiredCounter = Counter.builder("auth.reset.tokens").tag("result", "expired").register(meterRegistry);
+        this.sentCounter = Counter.builder("auth.reset.emails").tag("result", "sent").register(meterRegistry);
+        this.suppressedCounter = Counter.builder("auth.reset.emails").tag("result", "suppressed")
+                .register(meterRegistry);
+        this.undeliveredCounter = Counter.builder("auth.reset.emails").tag("result", "undelivered")
+                .register(meterRegistry);
+    }
+
+    // The sender gets the token and what to run if the mail turns out to be undelivered after it was queued.
+    public boolean issue(UUID userId, BiConsumer<String, Runnable> sender) {
+        var bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        var token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        var tokenHash = hash(token);
+        var now = clock.instant();
+        var expiresAt = now.plusSeconds(tokenExpirationSeconds);
+
+        // A token mailed within the window is still valid, so the user keeps that one and no mail is sent.
+        if (dedupWindowSeconds > 0) {
+            if (!passwordResetTokenRepository.insertIfNoneSince(tokenHash, userId, expiresAt, now,
+                    now.minusSeconds(dedupWindowSeconds))) {
+                suppressedCounter.increment();
+                return false;
+            }
+        } else {
+            passwordResetTokenRepository.insert(tokenHash, userId, expiresAt);
+        }
+        issuedCounter.increment();
+
+        // Otherwise a retry would be suppressed although no mail went out.
+        try {
+            sender.accept(token, () -> {
+                undeliveredCounter.increment();
+                passwordResetTokenRepository.delete(tokenHash);
+            });
+        } catch (RuntimeException e) {
+            passwordResetTokenRepository.delete(tokenHash);
+            throw e;
+        }
+        sentCounter.increment();
+
+        return true;
+    }
+
+    public void checkValid(String token) {
+        var expiresAt = passwordResetTokenRepository.findExpiresAt(hash(token))
+                .orElseThrow(this::invalidToken);
+
+        if (expiresAt.isBefore(clock.instant())) {
+            expiredCounter.increment();
+            throw new OperationRejectedException("expired_token", "Token expired");
+        }
+    }
+
+    public String consume(String token, String encodedPassword) {
+        var email = passwordResetTokenRepository.consume(hash(token), clock.instant(), encodedPassword)
+                .orElseThrow(this::invalidToken);
+        redeemedCounter.increment();
+
+        return email;
+    }
+
+    private OperationRejectedException invalidToken() {
+        invalidCounter.increment();
+        return new OperationRejectedException("invalid_token", "User not found");
+    }
+
+    static byte[] hash(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
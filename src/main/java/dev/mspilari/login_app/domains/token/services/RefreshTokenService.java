@@ -0,0 +1,123 @@
+package dev.mspilari.login_app.domains.token.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import dev.mspilari.login_app.domains.token.dto.RotatedRefreshTokenDto;
+import dev.mspilari.login_app.domains.token.entity.RefreshTokenEntity;
+import dev.mspilari.login_app.domains.token.repositories.RefreshTokenRepository;
+import dev.mspilari.login_app.domains.user.entity.UserEntity;
+import dev.mspilari.login_app.domains.user.repositories.UserRepository;
+import dev.mspilari.login_app.exceptions.OperationRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Service
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    @Value("${refresh.token.expiration.seconds:1209600}")
+    private Long refreshTokenExpirationSeconds;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final UserRepository userRepository;
+
+    private final Clock clock;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private final Counter issuedCounter;
+
+    private final Counter rotatedCounter;
+
+    private final Counter invalidCounter;
+
+    private final Counter reuseCounter;
+
+    @Autowired
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, UserRepository userRepository,
+            MeterRegistry meterRegistry) {
+        this(refreshTokenRepository, userRepository, meterRegistry, Clock.systemUTC());
+    }
+
+    RefreshTokenService(RefreshTokenRepository refreshTokenRepository, UserRepository userRepository,
+            MeterRegistry meterRegistry, Clock clock) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.clock = clock;
+        this.issuedCounter = Counter.builder("auth.refresh.tokens").tag("result", "issued").register(meterRegistry);
+        this.rotatedCounter = Counter.builder("auth.refresh.tokens").tag("result", "rotated").register(meterRegistry);
+        this.invalidCounter = Counter.builder("auth.refresh.tokens").tag("result", "invalid").register(meterRegistry);
+        this.reuseCounter = Counter.builder("auth.refresh.tokens").tag("result", "reused").register(meterRegistry);
+    }
+
+    @Transactional
+    public String issue(UUID userId) {
+        var token = store(userRepository.getReferenceById(userId), UUID.randomUUID());
+        issuedCounter.increment();
+        return token;
+    }
+
+    @Transactional(noRollbackFor = ResponseStatusException.class)
+    public RotatedRefreshTokenDto rotate(String refreshToken) {
+        var now = clock.instant();
+
+        var current = refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .orElseThrow(this::invalidToken);
+
+        if (refreshTokenRepository.markUsed(current.getId(), now) == 0) {
+            refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            reuseCounter.increment();
+            throw new OperationRejectedException("invalid_token", "Invalid refresh token");
+        }
+
+        if (current.getExpiresAt().isBefore(now)) {
+            throw invalidToken();
+        }
+
+        var user = current.getUser();
+        var next = store(user, current.getFamilyId());
+        rotatedCounter.increment();
+
+        return new RotatedRefreshTokenDto(user.getEmail(), user.getRole(), next);
+    }
+
+    private String store(UserEntity user, UUID familyId) {
+        var bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        var token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(new RefreshTokenEntity(hash(token), familyId, user,
+                clock.instant().plusSeconds(refreshTokenExpirationSeconds)));
+
+        return token;
+    }
+
+    private OperationRejectedException invalidToken() {
+        invalidCounter.increment();
+        return new OperationRejectedException("invalid_token", "Invalid refresh token");
+    }
+
+    static String hash(String token) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -10,8 +10,10 @@ import org.springframework.web.bind.annotation.RestController;
 
 import dev.mspilari.login_app.domains.user.dto.UserDto;
 import dev.mspilari.login_app.domains.user.dto.UserRedeemPasswordDto;
+import dev.mspilari.login_app.domains.user.dto.UserRefreshTokenDto;
 import dev.mspilari.login_app.domains.user.dto.UserResetPasswordDto;
 import dev.mspilari.login_app.domains.user.services.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 @RestController
@@ -25,9 +27,16 @@ public class UserController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<Map<String, String>> login(@RequestBody @Valid UserDto userDto) {
-        var token = userService.login(userDto.email(), userDto.password());
-        return ResponseEntity.ok().body(Map.of("token", token));
+    public ResponseEntity<Map<String, String>> login(@RequestBody @Valid UserDto userDto,
+            HttpServletRequest request) {
+        var tokens = userService.login(userDto.email(), userDto.password(), request.getRemoteAddr());
+        return ResponseEntity.ok().body(Map.of("token", tokens.token(), "refreshToken", tokens.refreshToken()));
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<Map<String, String>> refresh(@RequestBody @Valid UserRefreshTokenDto userDto) {
+        var tokens = userService.refresh(userDto.refreshToken());
+        return ResponseEntity.ok().body(Map.of("token", tokens.token(), "refreshToken", tokens.refreshToken()));
     }
 
     @PostMapping("/register")
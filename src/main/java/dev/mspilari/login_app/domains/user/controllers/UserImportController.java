@@ -0,0 +1,52 @@
+package dev.mspilari.login_app.domains.user.controllers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.mspilari.login_app.domains.user.enums.UserImportFormat;
+import dev.mspilari.login_app.domains.user.services.NdjsonUserImportWriter;
+import dev.mspilari.login_app.domains.user.services.UserImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@RestController
+@RequestMapping("admin/users")
+@PreAuthorize("hasAuthority('SCOPE_ADMIN')")
+public class UserImportController {
+
+    private static final String TEXT_CSV = "text/csv";
+
+    private UserImportService userImportService;
+
+    private ObjectMapper objectMapper;
+
+    public UserImportController(UserImportService userImportService, ObjectMapper objectMapper) {
+        this.userImportService = userImportService;
+        this.objectMapper = objectMapper;
+    }
+
+    // Streams both ways: rows are read as they arrive and errors and progress are written as each batch finishes.
+    @PostMapping(value = "/import", consumes = { MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV },
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importUsers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        var format = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.valueOf(TEXT_CSV))
+                ? UserImportFormat.CSV
+                : UserImportFormat.NDJSON;
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        var writer = new NdjsonUserImportWriter(response.getWriter(), objectMapper, true);
+        var summary = userImportService.importUsers(request.getInputStream(), format, writer);
+
+        writer.summary(summary);
+    }
+}
@@ -0,0 +1,9 @@
+package dev.mspilari.login_app.domains.user.dto;
+
+import java.util.UUID;
+
+import dev.mspilari.login_app.domains.user.enums.Role;
+
+public record UserCredentialsDto(UUID id, String email, String password, Role role) {
+
+}
@@ -0,0 +1,7 @@
+package dev.mspilari.login_app.domains.user.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record UserRefreshTokenDto(@NotBlank String refreshToken) {
+
+}
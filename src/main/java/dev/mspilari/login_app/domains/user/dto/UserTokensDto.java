@@ -0,0 +1,5 @@
+package dev.mspilari.login_app.domains.user.dto;
+
+public record UserTokensDto(String token, String refreshToken) {
+
+}
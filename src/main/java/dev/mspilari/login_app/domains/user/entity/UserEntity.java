@@ -1,6 +1,5 @@
 package dev.mspilari.login_app.domains.user.entity;
 
-import java.time.Instant;
 import java.util.UUID;
 
 import dev.mspilari.login_app.domains.user.enums.Role;
@@ -22,9 +21,6 @@ public class UserEntity {
     private String email;
     private String password;
 
-    private String resetToken;
-    private Instant resetTokenExpiration;
-
     @Enumerated(EnumType.STRING)
     private Role role;
 
@@ -37,12 +33,6 @@ public class UserEntity {
     public UserEntity() {
     }
 
-    public UserEntity withResetToken(String resetToken, Instant resetTokenAdditionalTime) {
-        this.resetToken = resetToken;
-        this.resetTokenExpiration = resetTokenAdditionalTime;
-        return this;
-    }
-
     public UUID getId() {
         return id;
     }
@@ -71,20 +61,4 @@ public class UserEntity {
         this.role = role;
     }
 
-    public Instant getResetTokenExpiration() {
-        return resetTokenExpiration;
-    }
-
-    public void setResetTokenExpiration(Instant resetTokenExpiration) {
-        this.resetTokenExpiration = resetTokenExpiration;
-    }
-
-    public String getResetToken() {
-        return resetToken;
-    }
-
-    public void setResetToken(String resetToken) {
-        this.resetToken = resetToken;
-    }
-
 }
@@ -0,0 +1,6 @@
+package dev.mspilari.login_app.domains.user.enums;
+
+public enum UserImportFormat {
+    NDJSON,
+    CSV
+}
@@ -0,0 +1,13 @@
+package dev.mspilari.login_app.domains.user.repositories;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+import dev.mspilari.login_app.domains.user.dto.UserCredentialsDto;
+
+public interface CredentialCache {
+
+    Optional<UserCredentialsDto> get(String email, Function<String, Optional<UserCredentialsDto>> loader);
+
+    void invalidate(String email);
+}
@@ -0,0 +1,186 @@
+package dev.mspilari.login_app.domains.user.repositories;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import dev.mspilari.login_app.domains.user.dto.UserCredentialsDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+public class InMemoryCredentialCache implements CredentialCache {
+
+    // Rough per-entry cost of the map node, the entry, the record and the UUID, without the strings.
+    private static final long ENTRY_OVERHEAD_BYTES = 160;
+
+    private record Entry(UserCredentialsDto credentials, long expiresAt, long bytes) {
+    }
+
+    private final int maxEntries;
+
+    private final long ttlMillis;
+
+    private final Clock clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Insertion order is expiry order, since every entry lives for the same TTL.
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    private long invalidations;
+
+    private long estimatedBytes;
+
+    private final Counter hitCounter;
+
+    private final Counter missCounter;
+
+    private final Counter evictionCounter;
+
+    public InMemoryCredentialCache(int maxEntries, Duration ttl, MeterRegistry meterRegistry) {
+        this(maxEntries, ttl, meterRegistry, Clock.systemUTC());
+    }
+
+    public InMemoryCredentialCache(int maxEntries, Duration ttl, MeterRegistry meterRegistry, Clock clock) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        this.hitCounter = Counter.builder("user.credentials.cache.requests").tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("user.credentials.cache.requests").tag("result", "miss")
+                .register(meterRegistry);
+        this.evictionCounter = Counter.builder("user.credentials.cache.evictions").register(meterRegistry);
+        Gauge.builder("user.credentials.cache.size", this, InMemoryCredentialCache::size).register(meterRegistry);
+        Gauge.builder("user.credentials.cache.memory", this, InMemoryCredentialCache::estimatedBytes)
+                .baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("user.credentials.cache.hit.ratio", this, InMemoryCredentialCache::hitRatio)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Optional<UserCredentialsDto> get(String email, Function<String, Optional<UserCredentialsDto>> loader) {
+        var key = key(email);
+        long generation;
+
+        lock.lock();
+        try {
+            var entry = entries.get(key);
+
+            if (entry != null && entry.expiresAt() > clock.millis()) {
+                hitCounter.increment();
+                return Optional.of(entry.credentials());
+            }
+            generation = invalidations;
+        } finally {
+            lock.unlock();
+        }
+
+        missCounter.increment();
+        var loaded = loader.apply(email);
+        loaded.ifPresent(credentials -> put(key, credentials, generation));
+
+        return loaded;
+    }
+
+    @Override
+    public void invalidate(String email) {
+        lock.lock();
+        try {
+            invalidations++;
+            remove(key(email));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            invalidations++;
+            entries.clear();
+            estimatedBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long estimatedBytes() {
+        lock.lock();
+        try {
+            return estimatedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private double hitRatio() {
+        var hits = hitCounter.count();
+        var total = hits + missCounter.count();
+
+        return total > 0 ? hits / total : 0;
+    }
+
+    private void put(String key, UserCredentialsDto credentials, long generation) {
+        var now = clock.millis();
+
+        lock.lock();
+        try {
+            // An invalidation during the load may have been for this row, so the loaded value could be stale.
+            if (invalidations != generation) {
+                return;
+            }
+
+            remove(key);
+            var bytes = ENTRY_OVERHEAD_BYTES + stringBytes(key) + stringBytes(credentials.email())
+                    + stringBytes(credentials.password());
+            entries.put(key, new Entry(credentials, now + ttlMillis, bytes));
+            estimatedBytes += bytes;
+
+            var iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                var eldest = iterator.next();
+
+                if (entries.size() <= maxEntries && eldest.expiresAt() > now) {
+                    break;
+                }
+                if (eldest.expiresAt() > now) {
+                    evictionCounter.increment();
+                }
+                iterator.remove();
+                estimatedBytes -= eldest.bytes();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(String key) {
+        var removed = entries.remove(key);
+
+        if (removed != null) {
+            estimatedBytes -= removed.bytes();
+        }
+    }
+
+    private static String key(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    private static long stringBytes(String value) {
+        return 40 + value.length();
+    }
+}
@@ -0,0 +1,18 @@
+package dev.mspilari.login_app.domains.user.repositories;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+import dev.mspilari.login_app.domains.user.dto.UserCredentialsDto;
+
+public class NoOpCredentialCache implements CredentialCache {
+
+    @Override
+    public Optional<UserCredentialsDto> get(String email, Function<String, Optional<UserCredentialsDto>> loader) {
+        return loader.apply(email);
+    }
+
+    @Override
+    public void invalidate(String email) {
+    }
+}
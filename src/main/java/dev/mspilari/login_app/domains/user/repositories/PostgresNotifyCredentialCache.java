@@ -0,0 +1,133 @@
+package dev.mspilari.login_app.domains.user.repositories;
+
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Function;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import dev.mspilari.login_app.domains.user.dto.UserCredentialsDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+public class PostgresNotifyCredentialCache implements CredentialCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresNotifyCredentialCache.class);
+
+    private static final String CHANNEL = "credential_invalidations";
+
+    private final InMemoryCredentialCache local;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final DataSource listenerDataSource;
+
+    private final int pollMillis;
+
+    private final long reconnectMillis;
+
+    private final Counter failedCounter;
+
+    private volatile boolean running;
+
+    private volatile boolean listening;
+
+    private Thread listener;
+
+    // The listener keeps its connection open for good, so it must not come from the request pool.
+    public PostgresNotifyCredentialCache(InMemoryCredentialCache local, JdbcTemplate jdbcTemplate,
+            DataSource listenerDataSource, int pollMillis, long reconnectMillis, MeterRegistry meterRegistry) {
+        this.local = local;
+        this.jdbcTemplate = jdbcTemplate;
+        this.listenerDataSource = listenerDataSource;
+        this.pollMillis = pollMillis;
+        this.reconnectMillis = reconnectMillis;
+        this.failedCounter = Counter.builder("user.credentials.cache.invalidations.failed").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        this.running = true;
+        this.listener = Thread.ofPlatform().name("credential-cache-listener").daemon(true).start(this::listen);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        this.running = false;
+        listener.interrupt();
+        listener.join(pollMillis * 2L);
+    }
+
+    @Override
+    public Optional<UserCredentialsDto> get(String email, Function<String, Optional<UserCredentialsDto>> loader) {
+        // Without the listener another node's invalidation would go unnoticed, so nothing is served from memory.
+        return listening ? local.get(email, loader) : loader.apply(email);
+    }
+
+    @Override
+    public void invalidate(String email) {
+        local.invalidate(email);
+
+        try {
+            jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, CHANNEL,
+                    email.toLowerCase(Locale.ROOT));
+        } catch (DataAccessException e) {
+            failedCounter.increment();
+            logger.warn("Unable to broadcast credential invalidation for {}: {}", email, e.getMessage());
+        }
+    }
+
+    public boolean isListening() {
+        return listening;
+    }
+
+    private void listen() {
+        while (running) {
+            try (var connection = listenerDataSource.getConnection()) {
+                try (var statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                var notifications = connection.unwrap(PGConnection.class);
+
+                // Invalidations sent before LISTEN took effect were missed.
+                local.invalidateAll();
+                listening = true;
+
+                while (running) {
+                    var received = notifications.getNotifications(pollMillis);
+
+                    if (received != null) {
+                        for (var notification : received) {
+                            local.invalidate(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    logger.warn("Credential cache listener disconnected: {}", e.getMessage());
+                }
+            } finally {
+                listening = false;
+                local.invalidateAll();
+            }
+
+            if (running) {
+                try {
+                    Thread.sleep(reconnectMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package dev.mspilari.login_app.domains.user.repositories;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import dev.mspilari.login_app.domains.user.enums.Role;
+
+@Repository
+public class UserImportRepository {
+
+    // One round trip per batch; RETURNING tells which rows went in, so conflicts can be reported per row.
+    private static final String INSERT_USERS = """
+            INSERT INTO tb_users (id, email, password, role)
+            SELECT u.id, u.email, u.password, ?
+            FROM unnest(?::uuid[], ?::varchar[], ?::varchar[]) AS u(id, email, password)
+            ON CONFLICT DO NOTHING
+            RETURNING id""";
+
+    private static final String SELECT_EXISTING_EMAILS = """
+            SELECT lower(email) FROM tb_users WHERE lower(email) = ANY(?::varchar[])""";
+
+    public record NewUser(UUID id, String email, String encodedPassword) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserImportRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Set<String> findExistingEmails(List<String> lowerCaseEmails) {
+        return new HashSet<>(jdbcTemplate.queryForList(SELECT_EXISTING_EMAILS, String.class,
+                (Object) lowerCaseEmails.toArray(String[]::new)));
+    }
+
+    public Set<UUID> insertAll(List<NewUser> users, Role role) {
+        var ids = users.stream().map(NewUser::id).toArray(UUID[]::new);
+        var emails = users.stream().map(NewUser::email).toArray(String[]::new);
+        var passwords = users.stream().map(NewUser::encodedPassword).toArray(String[]::new);
+
+        return jdbcTemplate.query(INSERT_USERS, rs -> {
+            var inserted = new HashSet<UUID>(users.size());
+            while (rs.next()) {
+                inserted.add(rs.getObject(1, UUID.class));
+            }
+            return inserted;
+        }, role.name(), ids, emails, passwords);
+    }
+}
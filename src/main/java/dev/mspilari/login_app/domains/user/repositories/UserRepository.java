@@ -1,16 +1,51 @@
 package dev.mspilari.login_app.domains.user.repositories;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import dev.mspilari.login_app.domains.user.dto.UserCredentialsDto;
 import dev.mspilari.login_app.domains.user.entity.UserEntity;
+import jakarta.persistence.QueryHint;
 
 @Repository
 public interface UserRepository extends JpaRepository<UserEntity, UUID> {
+    @Query("SELECT u FROM UserEntity u WHERE lower(u.email) = lower(:email)")
     Optional<UserEntity> findByEmail(String email);
 
-    Optional<UserEntity> findByResetToken(String resetToken);
+    @Transactional(readOnly = true)
+    @Query("SELECT new dev.mspilari.login_app.domains.user.dto.UserCredentialsDto(u.id, u.email, u.password, u.role) "
+            + "FROM UserEntity u WHERE lower(u.email) = lower(:email)")
+    Optional<UserCredentialsDto> findCredentialsByEmail(String email);
+
+    @Query("SELECT u.id FROM UserEntity u WHERE lower(u.email) = lower(:email)")
+    Optional<UUID> findIdByEmail(String email);
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO tb_users (id, email, password, role) VALUES (:id, :email, :password, :role) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(UUID id, String email, String password, String role);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserEntity u SET u.password = :newPassword WHERE u.id = :id AND u.password = :currentPassword")
+    int updatePassword(UUID id, String currentPassword, String newPassword);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT lower(u.email) FROM UserEntity u")
+    Stream<String> streamEmails();
+
+    @Query(value = "SELECT lower(email) FROM tb_users WHERE created_at >= :since", nativeQuery = true)
+    List<String> findEmailsCreatedSince(Instant since);
 }
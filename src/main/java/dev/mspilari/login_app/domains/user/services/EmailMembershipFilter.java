@@ -0,0 +1,194 @@
+package dev.mspilari.login_app.domains.user.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import dev.mspilari.login_app.domains.user.repositories.UserRepository;
+import dev.mspilari.login_app.utils.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+
+@Service
+public class EmailMembershipFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailMembershipFilter.class);
+
+    @Value("${user.email-filter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${user.email-filter.expected-insertions:1000000}")
+    private long expectedInsertions;
+
+    @Value("${user.email-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${user.email-filter.catch-up-interval-millis:5000}")
+    private long catchUpIntervalMillis;
+
+    @Value("${user.email-filter.catch-up-overlap-millis:5000}")
+    private long catchUpOverlapMillis;
+
+    private final UserRepository userRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private volatile BloomFilter current;
+
+    private volatile BloomFilter building;
+
+    private volatile Instant lastCatchUp;
+
+    private long lastCount;
+
+    private final Counter hitCounter;
+
+    private final Counter missCounter;
+
+    private final Counter falsePositiveCounter;
+
+    private final Counter staleCounter;
+
+    public EmailMembershipFilter(UserRepository userRepository, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.hitCounter = Counter.builder("user.email.filter").tag("result", "hit").register(meterRegistry);
+        this.missCounter = Counter.builder("user.email.filter").tag("result", "miss").register(meterRegistry);
+        this.falsePositiveCounter = Counter.builder("user.email.filter").tag("result", "false_positive")
+                .register(meterRegistry);
+        this.staleCounter = Counter.builder("user.email.filter").tag("result", "stale").register(meterRegistry);
+        Gauge.builder("user.email.filter.memory", this, filter -> filter.current != null
+                ? filter.current.memoryBytes()
+                : 0).baseUnit(BaseUnits.BYTES).register(meterRegistry);
+        Gauge.builder("user.email.filter.false.positive.rate", this, filter -> filter.current != null
+                ? filter.current.expectedFalsePositiveRate()
+                : 0).register(meterRegistry);
+        Gauge.builder("user.email.filter.staleness", this, filter -> filter.lastCatchUp != null
+                ? Duration.between(filter.lastCatchUp, Instant.now()).toMillis() / 1000.0
+                : 0).baseUnit("seconds").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${user.email-filter.rebuild-interval-millis:3600000}",
+            initialDelayString = "${user.email-filter.rebuild-interval-millis:3600000}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+
+        rebuildLock.lock();
+
+        try {
+            var startedAt = Instant.now();
+            var filter = new BloomFilter(Math.max(expectedInsertions, lastCount * 2), falsePositiveRate);
+            this.building = filter;
+
+            transactionTemplate.executeWithoutResult(status -> {
+                try (var emails = userRepository.streamEmails()) {
+                    emails.forEach(filter::put);
+                }
+            });
+
+            this.lastCatchUp = startedAt;
+            this.current = filter;
+            this.lastCount = filter.insertions();
+            logger.info("Built email filter with {} emails in {} KiB", lastCount, filter.memoryBytes() / 1024);
+        } catch (DataAccessException e) {
+            logger.warn("Unable to build email filter: {}", e.getMessage());
+        } finally {
+            this.building = null;
+            rebuildLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${user.email-filter.catch-up-interval-millis:5000}")
+    public void catchUp() {
+        var filter = this.current;
+
+        if (filter == null || !rebuildLock.tryLock()) {
+            return;
+        }
+
+        try {
+            var now = Instant.now();
+            userRepository.findEmailsCreatedSince(lastCatchUp.minusMillis(catchUpOverlapMillis)).forEach(filter::put);
+            this.lastCatchUp = now;
+        } catch (DataAccessException e) {
+            logger.warn("Unable to catch up email filter: {}", e.getMessage());
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    public boolean mightContain(String email) {
+        var filter = this.current;
+
+        if (filter == null || !isAscii(email)) {
+            return true;
+        }
+
+        // Past this point emails registered on other replicas may be missing, so a miss would be a false negative.
+        if (Instant.now().isAfter(lastCatchUp.plusMillis(catchUpIntervalMillis + catchUpOverlapMillis))) {
+            staleCounter.increment();
+            return true;
+        }
+
+        if (filter.mightContain(email.toLowerCase(Locale.ROOT))) {
+            hitCounter.increment();
+            return true;
+        }
+
+        missCounter.increment();
+        return false;
+    }
+
+    public void add(String email) {
+        var key = email.toLowerCase(Locale.ROOT);
+        var next = this.building;
+        var filter = this.current;
+
+        if (next != null) {
+            next.put(key);
+        }
+        if (filter != null) {
+            filter.put(key);
+        }
+    }
+
+    public void recordFalsePositive() {
+        if (this.current != null) {
+            falsePositiveCounter.increment();
+        }
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,63 @@
+package dev.mspilari.login_app.domains.user.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.mspilari.login_app.domains.user.dto.UserImportSummaryDto;
+
+public class NdjsonUserImportWriter implements UserImportListener {
+
+    private record RowError(long line, String email, String error) {
+    }
+
+    private final Writer writer;
+
+    private final ObjectMapper objectMapper;
+
+    private final boolean includeProgress;
+
+    public NdjsonUserImportWriter(Writer writer, ObjectMapper objectMapper, boolean includeProgress) {
+        this.writer = writer;
+        this.objectMapper = objectMapper;
+        this.includeProgress = includeProgress;
+    }
+
+    @Override
+    public void rowFailed(long line, String email, String error) {
+        write(new RowError(line, email, error));
+    }
+
+    @Override
+    public void progress(UserImportSummaryDto summary) {
+        if (includeProgress) {
+            write(Map.of("progress", summary));
+            flush();
+        }
+    }
+
+    public void summary(UserImportSummaryDto summary) {
+        write(Map.of("summary", summary));
+        flush();
+    }
+
+    private void write(Object value) {
+        try {
+            writer.write(objectMapper.writeValueAsString(value));
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package dev.mspilari.login_app.domains.user.services;
+
+import dev.mspilari.login_app.domains.user.dto.UserImportSummaryDto;
+
+public interface UserImportListener {
+
+    void rowFailed(long line, String email, String error);
+
+    void progress(UserImportSummaryDto summary);
+}
@@ -0,0 +1,93 @@
+package dev.mspilari.login_app.domains.user.services;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.mspilari.login_app.domains.user.dto.UserImportSummaryDto;
+import dev.mspilari.login_app.domains.user.enums.UserImportFormat;
+
+// Offline import: started with --user.import.file=<path>, runs once and exits with 0, or 2 when rows were invalid.
+@Component
+@ConditionalOnProperty(name = "user.import.file")
+public class UserImportRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportRunner.class);
+
+    private static final int INVALID_ROWS_EXIT_CODE = 2;
+
+    @Value("${user.import.file}")
+    private Path file;
+
+    @Value("${user.import.format:}")
+    private String format;
+
+    @Value("${user.import.errors-file:}")
+    private String errorsFile;
+
+    private final UserImportService userImportService;
+
+    private final ObjectMapper objectMapper;
+
+    private final ConfigurableApplicationContext context;
+
+    public UserImportRunner(UserImportService userImportService, ObjectMapper objectMapper,
+            ConfigurableApplicationContext context) {
+        this.userImportService = userImportService;
+        this.objectMapper = objectMapper;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        var errors = errorsFile.isBlank() ? Path.of(file + ".errors.ndjson") : Path.of(errorsFile);
+        UserImportSummaryDto summary;
+
+        try (var input = Files.newInputStream(file);
+                var output = Files.newBufferedWriter(errors, StandardCharsets.UTF_8)) {
+            var writer = new NdjsonUserImportWriter(output, objectMapper, false);
+
+            summary = userImportService.importUsers(input, format(), new UserImportListener() {
+                @Override
+                public void rowFailed(long line, String email, String error) {
+                    writer.rowFailed(line, email, error);
+                }
+
+                @Override
+                public void progress(UserImportSummaryDto progress) {
+                    logger.info("User import progress: {} rows read, {} imported, {} duplicates, {} invalid",
+                            progress.read(), progress.imported(), progress.duplicates(), progress.invalid());
+                }
+            });
+            writer.summary(summary);
+        }
+
+        logger.info("User import errors written to {}", errors);
+
+        var exitCode = summary.invalid() == 0 ? 0 : INVALID_ROWS_EXIT_CODE;
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+
+    private UserImportFormat format() {
+        if (!format.isBlank()) {
+            return UserImportFormat.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        }
+
+        return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv")
+                ? UserImportFormat.CSV
+                : UserImportFormat.NDJSON;
+    }
+}
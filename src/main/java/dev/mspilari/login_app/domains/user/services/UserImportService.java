@@ -0,0 +1,360 @@
+package dev.mspilari.login_app.domains.user.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.mspilari.login_app.domains.user.dto.UserDto;
+import dev.mspilari.login_app.domains.user.dto.UserImportSummaryDto;
+import dev.mspilari.login_app.domains.user.enums.Role;
+import dev.mspilari.login_app.domains.user.enums.UserImportFormat;
+import dev.mspilari.login_app.domains.user.repositories.UserImportRepository;
+import dev.mspilari.login_app.domains.user.repositories.UserImportRepository.NewUser;
+import dev.mspilari.login_app.exceptions.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.Validator;
+
+@Service
+public class UserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+
+    // What the configured PasswordEncoder can match, checked down to the encoded form so a truncated hash is not
+    // stored as an account nobody can log in to: BCrypt with or without its {bcrypt} prefix, Argon2 in its PHC
+    // string form, and PBKDF2 as the hex of a 16-byte salt followed by a 256-bit hash.
+    private static final String BCRYPT = "\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}";
+
+    private static final Pattern ENCODED_PASSWORD = Pattern.compile("(\\{bcrypt})?" + BCRYPT
+            + "|\\{argon2}\\$argon2(id|i|d)\\$v=\\d+\\$m=\\d+,t=\\d+,p=\\d+\\$[A-Za-z0-9+/]+\\$[A-Za-z0-9+/]+"
+            + "|\\{pbkdf2}[0-9a-fA-F]{96}");
+
+    private static final int MAX_COLUMN_LENGTH = 255;
+
+    @Value("${user.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${user.import.threads:0}")
+    private int threads;
+
+    @Value("${user.import.retry-after-seconds:60}")
+    private long retryAfterSeconds;
+
+    private final UserImportRepository userImportRepository;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final EmailMembershipFilter emailMembershipFilter;
+
+    private final Validator validator;
+
+    private final ObjectMapper objectMapper;
+
+    private final ReentrantLock running = new ReentrantLock();
+
+    private final Counter importedCounter;
+
+    private final Counter duplicateCounter;
+
+    private final Counter invalidCounter;
+
+    private record Row(long line, String email, String password, String encodedPassword) {
+    }
+
+    private static class Progress {
+        long read;
+        long imported;
+        long duplicates;
+        long invalid;
+
+        UserImportSummaryDto summary() {
+            return new UserImportSummaryDto(read, imported, duplicates, invalid);
+        }
+    }
+
+    public UserImportService(UserImportRepository userImportRepository, PasswordEncoder passwordEncoder,
+            EmailMembershipFilter emailMembershipFilter, Validator validator, ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        this.userImportRepository = userImportRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.emailMembershipFilter = emailMembershipFilter;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.importedCounter = Counter.builder("user.import.rows").tag("result", "imported").register(meterRegistry);
+        this.duplicateCounter = Counter.builder("user.import.rows").tag("result", "duplicate")
+                .register(meterRegistry);
+        this.invalidCounter = Counter.builder("user.import.rows").tag("result", "invalid").register(meterRegistry);
+    }
+
+    public UserImportSummaryDto importUsers(InputStream input, UserImportFormat format, UserImportListener listener)
+            throws IOException {
+        // Each import hashes on every core, so a second one would only halve the speed of both.
+        if (!running.tryLock()) {
+            throw new ServiceBusyException("A user import is already running", retryAfterSeconds);
+        }
+
+        // Its own pool rather than PasswordHasher's, whose short queue is sized for interactive logins.
+        var poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+
+        try (var reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+                var executor = Executors.newFixedThreadPool(poolSize,
+                        Thread.ofPlatform().name("user-import-", 0).daemon(true).factory())) {
+            var progress = new Progress();
+            var batch = new ArrayList<Row>(batchSize);
+            List<String> header = null;
+            long line = 0;
+
+            for (String text; (text = reader.readLine()) != null;) {
+                line++;
+
+                if (text.isBlank()) {
+                    continue;
+                }
+                if (format == UserImportFormat.CSV && header == null) {
+                    header = csvHeader(text);
+                    continue;
+                }
+
+                progress.read++;
+                var fields = new String[3];
+
+                try {
+                    fields = format == UserImportFormat.CSV ? csvRow(text, header) : jsonRow(text);
+                    batch.add(validate(line, fields[0], fields[1], fields[2]));
+                } catch (IllegalArgumentException e) {
+                    invalid(line, fields[0], e.getMessage(), listener, progress);
+                }
+
+                if (batch.size() == batchSize) {
+                    write(batch, executor, listener, progress);
+                    batch.clear();
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                write(batch, executor, listener, progress);
+            }
+
+            var summary = progress.summary();
+            logger.info("User import finished: {} rows read, {} imported, {} duplicates, {} invalid",
+                    summary.read(), summary.imported(), summary.duplicates(), summary.invalid());
+
+            return summary;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private void write(List<Row> batch, ExecutorService executor, UserImportListener listener, Progress progress) {
+        var existing = userImportRepository.findExistingEmails(batch.stream()
+                .map(row -> row.email().toLowerCase(Locale.ROOT))
+                .toList());
+        var seen = new HashSet<String>(batch.size());
+        var pending = new ArrayList<Row>(batch.size());
+        var encoded = new ArrayList<Future<String>>(batch.size());
+
+        for (var row : batch) {
+            var key = row.email().toLowerCase(Locale.ROOT);
+
+            // Rows already in the table are not hashed, so a resumed import skips through them quickly.
+            if (existing.contains(key) || !seen.add(key)) {
+                duplicate(row, listener, progress);
+                continue;
+            }
+
+            pending.add(row);
+            encoded.add(row.encodedPassword() != null
+                    ? CompletableFuture.completedFuture(row.encodedPassword())
+                    : executor.submit(() -> passwordEncoder.encode(row.password())));
+        }
+
+        var rows = new ArrayList<Row>(pending.size());
+        var users = new ArrayList<NewUser>(pending.size());
+
+        for (int i = 0; i < pending.size(); i++) {
+            var row = pending.get(i);
+
+            try {
+                users.add(new NewUser(UUID.randomUUID(), row.email(), await(encoded.get(i))));
+                rows.add(row);
+            } catch (IllegalArgumentException e) {
+                // The encoder rejects some passwords, such as BCrypt beyond 72 bytes.
+                invalid(row.line(), row.email(), e.getMessage(), listener, progress);
+            }
+        }
+
+        var inserted = users.isEmpty() ? Set.<UUID>of() : userImportRepository.insertAll(users, Role.CLIENT);
+
+        for (int i = 0; i < users.size(); i++) {
+            if (inserted.contains(users.get(i).id())) {
+                progress.imported++;
+                importedCounter.increment();
+                emailMembershipFilter.add(users.get(i).email());
+            } else {
+                duplicate(rows.get(i), listener, progress);
+            }
+        }
+
+        listener.progress(progress.summary());
+    }
+
+    private void duplicate(Row row, UserImportListener listener, Progress progress) {
+        progress.duplicates++;
+        duplicateCounter.increment();
+        listener.rowFailed(row.line(), row.email(), "Email already exists");
+    }
+
+    private void invalid(long line, String email, String error, UserImportListener listener, Progress progress) {
+        progress.invalid++;
+        invalidCounter.increment();
+        listener.rowFailed(line, email, error);
+    }
+
+    private Row validate(long line, String email, String password, String encodedPassword) {
+        if (email == null || email.length() > MAX_COLUMN_LENGTH
+                || !validator.validateValue(UserDto.class, "email", email).isEmpty()) {
+            throw new IllegalArgumentException("Invalid email");
+        }
+        if ((password == null) == (encodedPassword == null)) {
+            throw new IllegalArgumentException("Exactly one of password or passwordHash is required");
+        }
+        if (encodedPassword != null && (encodedPassword.length() > MAX_COLUMN_LENGTH
+                || !ENCODED_PASSWORD.matcher(encodedPassword).matches())) {
+            throw new IllegalArgumentException("Unsupported password hash");
+        }
+
+        return new Row(line, email, password, encodedPassword);
+    }
+
+    private String[] jsonRow(String text) {
+        JsonNode node;
+
+        try {
+            node = objectMapper.readTree(text);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON");
+        }
+
+        return new String[] { strip(text(node.path("email"))), text(node.path("password")),
+                text(node.path("passwordHash")) };
+    }
+
+    private static String text(JsonNode node) {
+        return node.isTextual() ? blankToNull(node.asText()) : null;
+    }
+
+    private static List<String> csvHeader(String text) {
+        var header = csvFields(text).stream().map(String::trim).toList();
+
+        if (!header.contains("email") || !(header.contains("password") || header.contains("passwordHash"))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "CSV header must contain email and password or passwordHash");
+        }
+
+        return header;
+    }
+
+    private static String[] csvRow(String text, List<String> header) {
+        var fields = csvFields(text);
+
+        if (fields.size() != header.size()) {
+            throw new IllegalArgumentException("Expected " + header.size() + " columns");
+        }
+
+        return new String[] { strip(column(fields, header, "email")), column(fields, header, "password"),
+                column(fields, header, "passwordHash") };
+    }
+
+    private static String column(List<String> fields, List<String> header, String name) {
+        var index = header.indexOf(name);
+
+        return index < 0 ? null : blankToNull(fields.get(index));
+    }
+
+    // RFC 4180 fields on a single line: quoted fields may hold commas and doubled quotes, but not line breaks.
+    private static List<String> csvFields(String text) {
+        var fields = new ArrayList<String>();
+        var field = new StringBuilder();
+        var quoted = false;
+
+        for (int i = 0; i < text.length(); i++) {
+            var c = text.charAt(i);
+
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+
+        return fields;
+    }
+
+    // Passwords are kept as given: surrounding spaces may be part of them.
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private static String strip(String value) {
+        return value == null ? null : value.strip();
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing imported passwords", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
@@ -1,113 +1,196 @@
 package dev.mspilari.login_app.domains.user.services;
 
-import java.time.Instant;
-import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpStatus;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
 import dev.mspilari.login_app.domains.email.services.EmailService;
-import dev.mspilari.login_app.domains.user.entity.UserEntity;
+import dev.mspilari.login_app.domains.lockout.services.LoginLockoutService;
+import dev.mspilari.login_app.domains.token.services.PasswordResetTokenService;
+import dev.mspilari.login_app.domains.token.services.RefreshTokenService;
+import dev.mspilari.login_app.domains.user.dto.UserTokensDto;
 import dev.mspilari.login_app.domains.user.enums.Role;
+import dev.mspilari.login_app.domains.user.repositories.CredentialCache;
 import dev.mspilari.login_app.domains.user.repositories.UserRepository;
+import dev.mspilari.login_app.exceptions.OperationRejectedException;
+import dev.mspilari.login_app.exceptions.ServiceBusyException;
+import dev.mspilari.login_app.exceptions.TooManyAttemptsException;
 import dev.mspilari.login_app.utils.JwtActions;
+import dev.mspilari.login_app.utils.PasswordHasher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 @Service
 public class UserService {
 
-    @Value("${token.expiration.seconds:300}")
-    private Long tokenExpirationSeconds;
-
     private final UserRepository userRepository;
 
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
 
     private final JwtActions jwtActions;
 
     private final EmailService emailService;
 
-    public UserService(UserRepository userRepository, BCryptPasswordEncoder passwordEncoder, JwtActions jwtActions,
-            EmailService emailService) {
+    private final RefreshTokenService refreshTokenService;
+
+    private final LoginLockoutService loginLockoutService;
+
+    private final EmailMembershipFilter emailMembershipFilter;
+
+    private final PasswordResetTokenService passwordResetTokenService;
+
+    private final CredentialCache credentialCache;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Timer jwtSignTimer;
+
+    public UserService(UserRepository userRepository, PasswordHasher passwordHasher, JwtActions jwtActions,
+            EmailService emailService, RefreshTokenService refreshTokenService,
+            LoginLockoutService loginLockoutService, EmailMembershipFilter emailMembershipFilter,
+            PasswordResetTokenService passwordResetTokenService, CredentialCache credentialCache,
+            MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
         this.jwtActions = jwtActions;
         this.emailService = emailService;
+        this.refreshTokenService = refreshTokenService;
+        this.loginLockoutService = loginLockoutService;
+        this.emailMembershipFilter = emailMembershipFilter;
+        this.passwordResetTokenService = passwordResetTokenService;
+        this.credentialCache = credentialCache;
+        this.meterRegistry = meterRegistry;
+        this.jwtSignTimer = Timer.builder("jwt.sign").publishPercentileHistogram().register(meterRegistry);
+    }
+
+    private <T> T timed(String operation, Supplier<T> action) {
+        var sample = Timer.start(meterRegistry);
+        var outcome = "success";
+
+        try {
+            return action.get();
+        } catch (RuntimeException e) {
+            outcome = outcomeOf(e);
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("user.operations")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    private void timed(String operation, Runnable action) {
+        timed(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private static String outcomeOf(RuntimeException e) {
+        return switch (e) {
+            case TooManyAttemptsException locked -> "locked";
+            case ServiceBusyException busy -> "busy";
+            case OperationRejectedException rejected -> rejected.getOutcome();
+            case ResponseStatusException status when status.getStatusCode().is4xxClientError() -> "rejected";
+            default -> "error";
+        };
     }
 
-    private Optional<UserEntity> findUserByEmail(String email) {
-        return userRepository.findByEmail(email);
+    private String signJwt(String email, Role role) {
+        return jwtSignTimer.record(() -> jwtActions.jwtCreate(email, role.toString()));
     }
 
     private boolean verifyPassword(String rawPassword, String encodedPassword) {
 
-        return passwordEncoder.matches(rawPassword, encodedPassword);
+        return passwordHasher.matches(rawPassword, encodedPassword);
     }
 
-    private void sendPasswordResetEmail(String email, String token) {
+    private void sendPasswordResetEmail(String email, String token, Runnable onFailure) {
         String subject = "Password Reset Request";
         String resetUrl = "https://seusite.com/reset?token=" + token;
         String body = "Click the link to reset your password: " + resetUrl;
 
         // Implemente o serviço de e-mail conforme necessário
-        emailService.sendEmail(email, subject, body);
+        emailService.sendEmail(email, subject, body, onFailure);
     }
 
     public void createUser(String email, String password) {
+        timed("register", () -> {
+            var encodedPassword = passwordHasher.encode(password);
 
-        if (findUserByEmail(email).isPresent()) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Email already exists !");
-        }
-
-        var encodedPassword = passwordEncoder.encode(password);
+            var inserted = userRepository.insertIfAbsent(UUID.randomUUID(), email, encodedPassword,
+                    Role.CLIENT.name());
 
-        var newUser = new UserEntity(email, encodedPassword, Role.CLIENT);
+            if (inserted == 0) {
+                throw new OperationRejectedException("email_exists", "Email already exists !");
+            }
 
-        userRepository.save(newUser);
+            emailMembershipFilter.add(email);
+        });
     }
 
-    public String login(String email, String password) {
-        var user = findUserByEmail(email).orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                "Invalid login credentials"));
+    public UserTokensDto login(String email, String password, String clientIp) {
+        return timed("login", () -> {
+            loginLockoutService.checkNotLocked(email, clientIp);
 
-        if (!verifyPassword(password, user.getPassword())) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid login credentials");
-        }
+            var user = credentialCache.get(email, userRepository::findCredentialsByEmail).orElse(null);
 
-        return jwtActions.jwtCreate(user.getEmail(), user.getRole().toString());
+            if (user == null || !verifyPassword(password, user.password())) {
+                loginLockoutService.recordFailure(email, clientIp);
+                throw new OperationRejectedException("bad_credentials", "Invalid login credentials");
+            }
 
-    }
+            loginLockoutService.recordSuccess(email, clientIp);
 
-    public void redeemPassword(String email) {
-        var user = findUserByEmail(email).orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                "Invalid email"));
+            if (passwordHasher.upgradeEncoding(user.password())) {
+                userRepository.updatePassword(user.id(), user.password(), passwordHasher.encode(password));
+                credentialCache.invalidate(user.email());
+            }
+
+            var token = signJwt(user.email(), user.role());
 
-        var token = UUID.randomUUID().toString();
+            return new UserTokensDto(token, refreshTokenService.issue(user.id()));
+        });
+    }
 
-        user.withResetToken(token, Instant.now().plusSeconds(this.tokenExpirationSeconds));
+    public UserTokensDto refresh(String refreshToken) {
+        return timed("refresh", () -> {
+            var rotated = refreshTokenService.rotate(refreshToken);
 
-        userRepository.save(user);
+            var token = signJwt(rotated.email(), rotated.role());
 
-        sendPasswordResetEmail(user.getEmail(), token);
+            return new UserTokensDto(token, rotated.refreshToken());
+        });
     }
 
-    public void resetPassword(String token, String password) {
-        var user = userRepository.findByResetToken(token)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                        "User not found"));
-
-        if (user.getResetTokenExpiration().isBefore(Instant.now())) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Token expired");
-        }
+    public void redeemPassword(String email) {
+        timed("redeem_password", () -> {
+            if (!emailMembershipFilter.mightContain(email)) {
+                throw new OperationRejectedException("unknown_email", "Invalid email");
+            }
+
+            var userId = userRepository.findIdByEmail(email).orElseThrow(() -> {
+                emailMembershipFilter.recordFalsePositive();
+                return new OperationRejectedException("unknown_email", "Invalid email");
+            });
+
+            passwordResetTokenService.issue(userId, (token, onFailure) -> sendPasswordResetEmail(email, token,
+                    onFailure));
+        });
+    }
 
-        user.setPassword(passwordEncoder.encode(password));
+    public void resetPassword(String token, String password) {
+        timed("reset_password", () -> {
+            passwordResetTokenService.checkValid(token);
 
-        user.withResetToken(null, null);
+            var email = passwordResetTokenService.consume(token, passwordHasher.encode(password));
 
-        userRepository.save(user);
+            credentialCache.invalidate(email);
+        });
     }
 
 }
@@ -1,10 +1,15 @@
 package dev.mspilari.login_app.exceptions;
 
+import java.sql.SQLTransientConnectionException;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedRuntimeException;
+import org.springframework.dao.DataAccessException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -14,6 +19,9 @@ import org.springframework.web.server.ResponseStatusException;
 @ControllerAdvice
 public class GlobalException {
 
+    @Value("${datasource.pool.retry-after-seconds:1}")
+    private long poolRetryAfterSeconds;
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, String>> defaultExceptionHandler(Exception e) {
 
@@ -25,7 +33,18 @@ public class GlobalException {
     public ResponseEntity<Map<String, String>> responseStatusExceptionHandler(ResponseStatusException e) {
         var error = Map.of("errorMessage", e.getReason(), "errorStatusCode", e.getStatusCode().toString());
 
-        return ResponseEntity.status(e.getStatusCode()).body(error);
+        return ResponseEntity.status(e.getStatusCode()).headers(e.getHeaders()).body(error);
+    }
+
+    @ExceptionHandler({ DataAccessException.class, CannotCreateTransactionException.class })
+    public ResponseEntity<Map<String, String>> dataAccessExceptionHandler(NestedRuntimeException e) {
+        // The pool gave up waiting for a free connection: the request can be retried, unlike other failures.
+        if (e.contains(SQLTransientConnectionException.class)) {
+            return responseStatusExceptionHandler(
+                    new ServiceBusyException("Server is busy, try again later", poolRetryAfterSeconds));
+        }
+
+        return defaultExceptionHandler(e);
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
@@ -0,0 +1,19 @@
+package dev.mspilari.login_app.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+// A 400 that also names the outcome tag user.operations records for it, chosen where the request is rejected.
+public class OperationRejectedException extends ResponseStatusException {
+
+    private final String outcome;
+
+    public OperationRejectedException(String outcome, String reason) {
+        super(HttpStatus.BAD_REQUEST, reason);
+        this.outcome = outcome;
+    }
+
+    public String getOutcome() {
+        return outcome;
+    }
+}
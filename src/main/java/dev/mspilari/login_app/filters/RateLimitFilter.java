@@ -0,0 +1,113 @@
+package dev.mspilari.login_app.filters;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.mspilari.login_app.utils.TokenBucketLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Set<String> LIMITED_PATHS = Set.of("/user/login", "/user/register",
+            "/user/redeem-password");
+
+    private final TokenBucketLimiter ipLimiter;
+
+    private final TokenBucketLimiter emailLimiter;
+
+    private final int maxBodyBytes;
+
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(TokenBucketLimiter ipLimiter, TokenBucketLimiter emailLimiter, int maxBodyBytes,
+            ObjectMapper objectMapper) {
+        this.ipLimiter = ipLimiter;
+        this.emailLimiter = emailLimiter;
+        this.maxBodyBytes = maxBodyBytes;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        var path = request.getRequestURI().substring(request.getContextPath().length());
+
+        return !HttpMethod.POST.matches(request.getMethod()) || !LIMITED_PATHS.contains(path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        var wait = ipLimiter.tryAcquire(request.getRemoteAddr());
+
+        if (wait > 0) {
+            reject(response, wait);
+            return;
+        }
+
+        // These endpoints are unauthenticated, so the body is buffered only up to a small cap, declared or chunked.
+        if (request.getContentLengthLong() > maxBodyBytes) {
+            tooLarge(response);
+            return;
+        }
+
+        var body = request.getInputStream().readNBytes(maxBodyBytes + 1);
+
+        if (body.length > maxBodyBytes) {
+            tooLarge(response);
+            return;
+        }
+
+        var cachedRequest = new CachedBodyHttpServletRequest(request, body);
+        var email = extractEmail(cachedRequest.getBody());
+
+        if (email != null) {
+            wait = emailLimiter.tryAcquire(email);
+
+            if (wait > 0) {
+                reject(response, wait);
+                return;
+            }
+        }
+
+        chain.doFilter(cachedRequest, response);
+    }
+
+    private String extractEmail(byte[] body) {
+        try {
+            var email = objectMapper.readTree(body).path("email");
+
+            return email.isTextual() ? email.asText().trim().toLowerCase(Locale.ROOT) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void reject(HttpServletResponse response, long waitMillis) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.ceilDiv(waitMillis, 1000L)));
+        writeError(response, HttpStatus.TOO_MANY_REQUESTS, "Too many requests, try again later");
+    }
+
+    private void tooLarge(HttpServletResponse response) throws IOException {
+        writeError(response, HttpStatus.PAYLOAD_TOO_LARGE, "Request body is too large");
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                Map.of("errorMessage", message, "errorStatusCode", status.toString()));
+    }
+}
@@ -0,0 +1,50 @@
+package dev.mspilari.login_app.utils;
+
+import java.time.Duration;
+import java.util.function.IntFunction;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+public class BCryptStrengthCalibrator {
+
+    private static final int SAMPLES = 3;
+
+    private final IntFunction<Duration> hashTimer;
+
+    public BCryptStrengthCalibrator() {
+        this(BCryptStrengthCalibrator::timeHash);
+    }
+
+    public BCryptStrengthCalibrator(IntFunction<Duration> hashTimer) {
+        this.hashTimer = hashTimer;
+    }
+
+    public int calibrate(Duration target, int minStrength, int maxStrength) {
+        hashTimer.apply(minStrength);
+
+        var strength = minStrength;
+
+        while (strength < maxStrength && fitsWithin(strength + 1, target)) {
+            strength++;
+        }
+
+        return strength;
+    }
+
+    private boolean fitsWithin(int strength, Duration target) {
+        for (int i = 0; i < SAMPLES; i++) {
+            if (hashTimer.apply(strength).compareTo(target) <= 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static Duration timeHash(int strength) {
+        var encoder = new BCryptPasswordEncoder(strength);
+        var start = System.nanoTime();
+        encoder.encode("calibration-password");
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+}
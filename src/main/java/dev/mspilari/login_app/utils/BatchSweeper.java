@@ -0,0 +1,128 @@
+package dev.mspilari.login_app.utils;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Deletes rows in short batches with a pause in between, and backs off while requests wait for a connection.
+// Settings are read from <prefix>.enabled, batch-size, max-batches, pause-millis, interval-millis and
+// initial-delay-millis; each instance schedules itself.
+public class BatchSweeper implements SchedulingConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchSweeper.class);
+
+    @FunctionalInterface
+    public interface BatchDelete {
+        int delete(Instant cutoff, int batchSize);
+    }
+
+    private final String description;
+
+    private final BatchDelete batchDelete;
+
+    private final DataSource dataSource;
+
+    private final boolean enabled;
+
+    private final int batchSize;
+
+    private final int maxBatches;
+
+    private final long pauseMillis;
+
+    private final Duration interval;
+
+    private final Duration initialDelay;
+
+    private final Counter purgedCounter;
+
+    private final Counter deferredCounter;
+
+    private final Timer sweepTimer;
+
+    public BatchSweeper(String propertyPrefix, String metricPrefix, String description, BatchDelete batchDelete,
+            Duration defaultInitialDelay, Environment environment, DataSource dataSource,
+            MeterRegistry meterRegistry) {
+        this.description = description;
+        this.batchDelete = batchDelete;
+        this.dataSource = dataSource;
+        this.enabled = environment.getProperty(propertyPrefix + ".enabled", Boolean.class, true);
+        this.batchSize = environment.getProperty(propertyPrefix + ".batch-size", Integer.class, 500);
+        this.maxBatches = environment.getProperty(propertyPrefix + ".max-batches", Integer.class, 200);
+        this.pauseMillis = environment.getProperty(propertyPrefix + ".pause-millis", Long.class, 100L);
+        this.interval = Duration.ofMillis(
+                environment.getProperty(propertyPrefix + ".interval-millis", Long.class, 300000L));
+        this.initialDelay = Duration.ofMillis(environment.getProperty(propertyPrefix + ".initial-delay-millis",
+                Long.class, defaultInitialDelay.toMillis()));
+        this.purgedCounter = Counter.builder(metricPrefix + ".purged").register(meterRegistry);
+        this.deferredCounter = Counter.builder(metricPrefix + ".sweep.deferred").register(meterRegistry);
+        this.sweepTimer = Timer.builder(metricPrefix + ".sweep").register(meterRegistry);
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedDelayTask(new FixedDelayTask(this::sweep, interval, initialDelay));
+    }
+
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+
+        var sample = Timer.start();
+        var cutoff = Instant.now();
+        var total = 0L;
+
+        try {
+            for (int batch = 0; batch < maxBatches; batch++) {
+                if (poolIsBusy()) {
+                    deferredCounter.increment();
+                    break;
+                }
+
+                var purged = batchDelete.delete(cutoff, batchSize);
+
+                total += purged;
+                purgedCounter.increment(purged);
+
+                if (purged < batchSize) {
+                    break;
+                }
+
+                Thread.sleep(pauseMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (DataAccessException e) {
+            logger.warn("Sweep of {} failed after {} rows: {}", description, total, e.getMessage());
+        } finally {
+            var duration = sample.stop(sweepTimer);
+
+            if (total > 0) {
+                logger.info("Purged {} {} in {} ms", total, description, duration / 1_000_000);
+            }
+        }
+    }
+
+    private boolean poolIsBusy() {
+        if (dataSource instanceof HikariDataSource hikari && hikari.getHikariPoolMXBean() != null) {
+            return hikari.getHikariPoolMXBean().getThreadsAwaitingConnection() > 0;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,108 @@
+package dev.mspilari.login_app.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray words;
+
+    private final long bitSize;
+
+    private final int hashFunctions;
+
+    private final AtomicLong bitCount = new AtomicLong();
+
+    private final AtomicLong insertions = new AtomicLong();
+
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        var expected = Math.max(1, expectedInsertions);
+        var bits = (long) Math.ceil(-expected * Math.log(falsePositiveRate) / (LN2 * LN2));
+        var wordCount = Math.toIntExact(Math.max(1, (bits + 63) / 64));
+
+        this.words = new AtomicLongArray(wordCount);
+        this.bitSize = wordCount * 64L;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitSize / expected * LN2));
+    }
+
+    public void put(String value) {
+        var hash1 = hash(value);
+        var hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+        insertions.incrementAndGet();
+
+        for (int i = 0; i < hashFunctions; i++) {
+            var bit = Long.remainderUnsigned(hash1 + i * hash2, bitSize);
+            var index = (int) (bit >>> 6);
+            var mask = 1L << bit;
+
+            while (true) {
+                var word = words.get(index);
+
+                if ((word & mask) != 0) {
+                    break;
+                }
+                if (words.compareAndSet(index, word, word | mask)) {
+                    bitCount.incrementAndGet();
+                    break;
+                }
+            }
+        }
+    }
+
+    public boolean mightContain(String value) {
+        var hash1 = hash(value);
+        var hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+
+        for (int i = 0; i < hashFunctions; i++) {
+            var bit = Long.remainderUnsigned(hash1 + i * hash2, bitSize);
+
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public double expectedFalsePositiveRate() {
+        return Math.pow((double) bitCount.get() / bitSize, hashFunctions);
+    }
+
+    public long insertions() {
+        return insertions.get();
+    }
+
+    public long memoryBytes() {
+        return words.length() * 8L;
+    }
+
+    public long bitSize() {
+        return bitSize;
+    }
+
+    public int hashFunctions() {
+        return hashFunctions;
+    }
+
+    private static long hash(String value) {
+        var hash = 0xCBF29CE484222325L;
+
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
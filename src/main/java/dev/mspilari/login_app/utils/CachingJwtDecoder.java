@@ -0,0 +1,118 @@
+package dev.mspilari.login_app.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private record Expiry(long expiresAt, String key) {
+    }
+
+    private final JwtDecoder delegate;
+
+    private final int maxSize;
+
+    private final Clock clock;
+
+    private final ConcurrentHashMap<String, Jwt> cache = new ConcurrentHashMap<>();
+
+    // Cached keys ordered by expiry, so a full cache drops expired and then soonest-expiring tokens without a scan.
+    private final ConcurrentSkipListSet<Expiry> expiries = new ConcurrentSkipListSet<>(
+            Comparator.comparingLong(Expiry::expiresAt).thenComparing(Expiry::key));
+
+    private final Counter hitCounter;
+
+    private final Counter missCounter;
+
+    public CachingJwtDecoder(JwtDecoder delegate, int maxSize, MeterRegistry meterRegistry) {
+        this(delegate, maxSize, meterRegistry, Clock.systemUTC());
+    }
+
+    public CachingJwtDecoder(JwtDecoder delegate, int maxSize, MeterRegistry meterRegistry, Clock clock) {
+        this.delegate = delegate;
+        this.maxSize = maxSize;
+        this.clock = clock;
+        this.hitCounter = Counter.builder("jwt.decoder.cache").tag("result", "hit").register(meterRegistry);
+        this.missCounter = Counter.builder("jwt.decoder.cache").tag("result", "miss").register(meterRegistry);
+        meterRegistry.gaugeMapSize("jwt.decoder.cache.size", Tags.empty(), cache);
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        var key = hash(token);
+        var cached = cache.get(key);
+
+        if (cached != null) {
+            if (isLive(cached)) {
+                hitCounter.increment();
+                return cached;
+            }
+            cache.computeIfPresent(key, (k, current) -> current == cached ? unindex(k, current) : current);
+        }
+
+        missCounter.increment();
+        var jwt = delegate.decode(token);
+
+        if (jwt.getExpiresAt() != null) {
+            cache.compute(key, (k, current) -> {
+                expiries.add(expiry(k, jwt));
+                return jwt;
+            });
+            evict();
+        }
+
+        return jwt;
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    private boolean isLive(Jwt jwt) {
+        return jwt.getExpiresAt().isAfter(clock.instant());
+    }
+
+    // The index is only changed inside a compute on the same key, so a map entry and its expiry come and go together.
+    private void evict() {
+        while (cache.size() > maxSize) {
+            var soonest = expiries.pollFirst();
+
+            if (soonest == null) {
+                return;
+            }
+            cache.computeIfPresent(soonest.key(), this::unindex);
+        }
+    }
+
+    private Jwt unindex(String key, Jwt jwt) {
+        expiries.remove(expiry(key, jwt));
+        return null;
+    }
+
+    private static Expiry expiry(String key, Jwt jwt) {
+        return new Expiry(jwt.getExpiresAt().toEpochMilli(), key);
+    }
+
+    private static String hash(String token) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package dev.mspilari.login_app.utils;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+public class ConnectionHoldMetricsTrackerFactory implements MetricsTrackerFactory {
+
+    private final Supplier<MeterRegistry> meterRegistry;
+
+    // The pool starts on the first getConnection, after the registry exists, so it is resolved lazily.
+    public ConnectionHoldMetricsTrackerFactory(Supplier<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        var registry = meterRegistry.get();
+        var delegate = new MicrometerMetricsTrackerFactory(registry).create(poolName, poolStats);
+
+        // Above 1 means requests are queuing for a connection.
+        Gauge.builder("hikaricp.connections.saturation", poolStats,
+                stats -> (double) (stats.getActiveConnections() + stats.getPendingThreads())
+                        / stats.getMaxConnections())
+                .tag("pool", poolName)
+                .strongReference(true)
+                .register(registry);
+
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+                delegate.recordConnectionCreatedMillis(connectionCreatedMillis);
+            }
+
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                delegate.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                delegate.recordConnectionUsageMillis(elapsedBorrowedMillis);
+
+                // Hikari reports usage from the thread that closes the connection, so the request is still bound.
+                Timer.builder("db.connection.hold")
+                        .tag("pool", poolName)
+                        .tag("endpoint", currentEndpoint())
+                        .publishPercentileHistogram()
+                        .register(registry)
+                        .record(Duration.ofMillis(elapsedBorrowedMillis));
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                delegate.recordConnectionTimeout();
+            }
+
+            @Override
+            public void close() {
+                delegate.close();
+            }
+        };
+    }
+
+    private static String currentEndpoint() {
+        var attributes = RequestContextHolder.getRequestAttributes();
+
+        if (attributes == null) {
+            return "none";
+        }
+
+        var pattern = attributes.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+
+        return pattern instanceof String endpoint ? endpoint : "unmapped";
+    }
+}
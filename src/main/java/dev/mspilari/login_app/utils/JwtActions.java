@@ -1,38 +1,47 @@
 package dev.mspilari.login_app.utils;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.oauth2.jwt.JwtClaimsSet;
-import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
 import org.springframework.stereotype.Service;
 
-import dev.mspilari.login_app.configs.JwtConfig;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jose.util.JSONStringUtils;
 
 @Service
 public class JwtActions {
 
+    private static final String CLAIMS_PREFIX = "{\"iss\":\"login_app\",\"sub\":";
+
     @Value("${jwt.expiration:300}")
     private Long jwtExpiration;
 
-    private final JwtConfig jwtConfig;
+    private final JwtKeyRing keyRing;
 
-    public JwtActions(JwtConfig jwtConfig) {
-        this.jwtConfig = jwtConfig;
+    public JwtActions(JwtKeyRing keyRing) {
+        this.keyRing = keyRing;
     }
 
     public String jwtCreate(String email, String role) {
-        var now = Instant.now();
-
-        var claims = JwtClaimsSet.builder()
-                .issuer("login_app")
-                .subject(email)
-                .issuedAt(now)
-                .expiresAt(now.plusSeconds(jwtExpiration))
-                .claim("scope", role)
-                .build();
-
-        return jwtConfig.jwtEncoder().encode(JwtEncoderParameters.from(claims)).getTokenValue();
-
+        var key = keyRing.signingKey();
+        var now = Instant.now().getEpochSecond();
+
+        var claims = new StringBuilder(160)
+                .append(CLAIMS_PREFIX).append(JSONStringUtils.toJSONString(email))
+                .append(",\"iat\":").append(now)
+                .append(",\"exp\":").append(now + jwtExpiration)
+                .append(",\"scope\":").append(JSONStringUtils.toJSONString(role))
+                .append('}');
+
+        var signingInput = key.encodedHeader() + Base64URL.encode(claims.toString());
+
+        try {
+            var signature = key.signer().sign(key.header(), signingInput.getBytes(StandardCharsets.US_ASCII));
+            return signingInput + "." + signature;
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Unable to sign JWT", e);
+        }
     }
 }
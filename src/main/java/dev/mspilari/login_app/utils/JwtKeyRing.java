@@ -0,0 +1,173 @@
+package dev.mspilari.login_app.utils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+
+import dev.mspilari.login_app.configs.JwtKeyMaterial;
+
+public class JwtKeyRing {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyRing.class);
+
+    public record SigningKey(String kid, JWSHeader header, String encodedHeader, JWSSigner signer) {
+    }
+
+    public record VerificationKey(String kid, JWSAlgorithm algorithm, JWSVerifier verifier, JWK publicJwk,
+            Instant createdAt, Instant retiredAt) {
+    }
+
+    private record RingKey(SigningKey signing, VerificationKey verification) {
+    }
+
+    private record State(RingKey active, RingKey pending, Map<String, VerificationKey> keys, JWKSet publicJwkSet) {
+    }
+
+    private final JWSAlgorithm algorithm;
+
+    private final String configuredKid;
+
+    private final boolean rotationEnabled;
+
+    private final Duration rotationInterval;
+
+    private final Duration publishLead;
+
+    private final Duration retention;
+
+    private final Clock clock;
+
+    private final ReentrantLock rotationLock = new ReentrantLock();
+
+    private volatile State state;
+
+    public JwtKeyRing(JwtKeyMaterial configuredKey, boolean rotationEnabled, Duration rotationInterval,
+            Duration publishLead, Duration retention, Clock clock) {
+        var keyMaterial = configuredKey.withThumbprintKeyId();
+        var key = ringKey(keyMaterial, clock.instant());
+
+        this.algorithm = keyMaterial.algorithm();
+        this.configuredKid = keyMaterial.kid();
+        this.rotationEnabled = rotationEnabled;
+        this.rotationInterval = rotationInterval;
+        this.publishLead = publishLead;
+        this.retention = retention;
+        this.clock = clock;
+        this.state = newState(key, null, Map.of(key.verification().kid(), key.verification()));
+    }
+
+    public SigningKey signingKey() {
+        return state.active().signing();
+    }
+
+    public VerificationKey verificationKey(String kid) {
+        return state.keys().get(kid != null ? kid : configuredKid);
+    }
+
+    public JWKSet publicJwkSet() {
+        return state.publicJwkSet();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.rotation.check-interval-millis:60000}")
+    public void rotateIfDue() {
+        if (!rotationEnabled) {
+            return;
+        }
+
+        rotationLock.lock();
+        try {
+            var now = clock.instant();
+            var current = state;
+
+            if (current.pending() != null) {
+                if (!now.isBefore(current.pending().verification().createdAt().plus(publishLead))) {
+                    activatePending(now);
+                }
+            } else if (!now.isBefore(current.active().verification().createdAt()
+                    .plus(rotationInterval).minus(publishLead))) {
+                publishNextKey(now);
+            }
+
+            dropRetiredKeys(now);
+        } finally {
+            rotationLock.unlock();
+        }
+    }
+
+    public void rotateNow() {
+        rotationLock.lock();
+        try {
+            var now = clock.instant();
+
+            if (state.pending() == null) {
+                publishNextKey(now);
+            }
+            activatePending(now);
+        } finally {
+            rotationLock.unlock();
+        }
+    }
+
+    private void publishNextKey(Instant now) {
+        var current = state;
+        var next = ringKey(JwtKeyMaterial.generate(algorithm), now);
+
+        var keys = new LinkedHashMap<>(current.keys());
+        keys.put(next.verification().kid(), next.verification());
+
+        this.state = newState(current.active(), next, keys);
+        logger.info("Published next JWT signing key {}", next.verification().kid());
+    }
+
+    private void activatePending(Instant now) {
+        var current = state;
+        var previous = current.active().verification();
+        var retired = new VerificationKey(previous.kid(), previous.algorithm(), previous.verifier(),
+                previous.publicJwk(), previous.createdAt(), now);
+
+        var keys = new LinkedHashMap<>(current.keys());
+        keys.put(retired.kid(), retired);
+
+        this.state = newState(current.pending(), null, keys);
+        logger.info("Rotated JWT signing key from {} to {}", retired.kid(), current.pending().verification().kid());
+    }
+
+    private void dropRetiredKeys(Instant now) {
+        var current = state;
+        var keys = new LinkedHashMap<>(current.keys());
+
+        var dropped = keys.values().removeIf(key -> key.retiredAt() != null
+                && now.isAfter(key.retiredAt().plus(retention)));
+
+        if (dropped) {
+            this.state = newState(current.active(), current.pending(), keys);
+        }
+    }
+
+    private static State newState(RingKey active, RingKey pending, Map<String, VerificationKey> keys) {
+        var publicJwks = keys.values().stream().map(VerificationKey::publicJwk).toList();
+        return new State(active, pending, Map.copyOf(keys), new JWKSet(publicJwks));
+    }
+
+    private static RingKey ringKey(JwtKeyMaterial keyMaterial, Instant createdAt) {
+        var header = keyMaterial.header();
+        var signing = new SigningKey(keyMaterial.kid(), header, header.toBase64URL() + ".", keyMaterial.signer());
+        var verification = new VerificationKey(keyMaterial.kid(), keyMaterial.algorithm(), keyMaterial.verifier(),
+                keyMaterial.publicJwk(), createdAt, null);
+        return new RingKey(signing, verification);
+    }
+}
@@ -0,0 +1,85 @@
+package dev.mspilari.login_app.utils;
+
+import java.text.ParseException;
+import java.util.Collections;
+import java.util.stream.Collectors;
+
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.MappedJwtClaimSetConverter;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jwt.SignedJWT;
+
+public class SignedJwtDecoder implements JwtDecoder {
+
+    private final JwtKeyRing keyRing;
+
+    private final MappedJwtClaimSetConverter claimSetConverter = MappedJwtClaimSetConverter
+            .withDefaults(Collections.emptyMap());
+
+    private final OAuth2TokenValidator<Jwt> validator = JwtValidators.createDefault();
+
+    public SignedJwtDecoder(JwtKeyRing keyRing) {
+        this.keyRing = keyRing;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        SignedJWT signedJwt;
+
+        try {
+            signedJwt = SignedJWT.parse(token);
+        } catch (ParseException e) {
+            throw new BadJwtException("Malformed token", e);
+        }
+
+        var key = keyRing.verificationKey(signedJwt.getHeader().getKeyID());
+
+        if (key == null) {
+            throw new BadJwtException("Unknown signing key");
+        }
+
+        if (!key.algorithm().equals(signedJwt.getHeader().getAlgorithm())) {
+            throw new BadJwtException("Unexpected signing algorithm");
+        }
+
+        try {
+            if (!signedJwt.verify(key.verifier())) {
+                throw new BadJwtException("Invalid signature");
+            }
+        } catch (JOSEException e) {
+            throw new BadJwtException("Unable to verify signature", e);
+        }
+
+        Jwt jwt;
+
+        try {
+            var claims = claimSetConverter.convert(signedJwt.getJWTClaimsSet().getClaims());
+
+            jwt = Jwt.withTokenValue(token)
+                    .headers(headers -> headers.putAll(signedJwt.getHeader().toJSONObject()))
+                    .claims(jwtClaims -> jwtClaims.putAll(claims))
+                    .build();
+        } catch (ParseException | IllegalArgumentException e) {
+            throw new BadJwtException("Malformed claims", e);
+        }
+
+        OAuth2TokenValidatorResult result = validator.validate(jwt);
+
+        if (result.hasErrors()) {
+            var description = result.getErrors().stream()
+                    .map(error -> error.getDescription())
+                    .collect(Collectors.joining(", "));
+            throw new JwtValidationException(description, result.getErrors());
+        }
+
+        return jwt;
+    }
+}
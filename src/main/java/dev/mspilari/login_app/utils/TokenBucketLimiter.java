@@ -0,0 +1,129 @@
+package dev.mspilari.login_app.utils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+public class TokenBucketLimiter {
+
+    // What a new key gets when every bucket is still in use. ALLOW suits a limiter that is not the only one on the
+    // request: the key goes unlimited here but still needs a token from the other limiter. EVICT makes room by
+    // dropping the most refilled bucket of a small sample, so rotating keys loosens the limit instead of locking
+    // everyone new out.
+    public enum Overflow {
+        ALLOW,
+        EVICT
+    }
+
+    private static final int EVICTION_SAMPLE = 16;
+
+    private final long replenishMillis;
+
+    private final long burstMillis;
+
+    private final int maxBuckets;
+
+    private final Overflow overflow;
+
+    private final Clock clock;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    private final AtomicLong lastSweep = new AtomicLong();
+
+    private final Counter rejectedCounter;
+
+    private final Counter overflowCounter;
+
+    public TokenBucketLimiter(String name, int capacity, Duration replenishEvery, int maxBuckets, Overflow overflow,
+            MeterRegistry meterRegistry) {
+        this(name, capacity, replenishEvery, maxBuckets, overflow, meterRegistry, Clock.systemUTC());
+    }
+
+    public TokenBucketLimiter(String name, int capacity, Duration replenishEvery, int maxBuckets, Overflow overflow,
+            MeterRegistry meterRegistry, Clock clock) {
+        if (capacity < 1 || replenishEvery.toMillis() < 1) {
+            throw new IllegalArgumentException("Rate limiter " + name + " needs a positive capacity and refill rate");
+        }
+
+        this.replenishMillis = replenishEvery.toMillis();
+        this.burstMillis = (capacity - 1) * replenishMillis;
+        this.maxBuckets = maxBuckets;
+        this.overflow = overflow;
+        this.clock = clock;
+        this.rejectedCounter = Counter.builder("rate.limiter.rejected").tag("limiter", name).register(meterRegistry);
+        this.overflowCounter = Counter.builder("rate.limiter.overflow").tag("limiter", name).register(meterRegistry);
+        meterRegistry.gaugeMapSize("rate.limiter.buckets", Tags.of("limiter", name), buckets);
+    }
+
+    // Returns 0 when a token was taken, otherwise the milliseconds until the next one is available.
+    public long tryAcquire(String key) {
+        var now = clock.millis();
+        var bucket = buckets.get(key);
+
+        if (bucket == null) {
+            if (buckets.size() >= maxBuckets && !evictIdle(now)) {
+                overflowCounter.increment();
+                if (overflow == Overflow.ALLOW) {
+                    return 0;
+                }
+                evictMostRefilled();
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+
+        while (true) {
+            var arrival = bucket.get();
+            var start = Math.max(arrival, now);
+            var wait = start - now - burstMillis;
+
+            if (wait > 0) {
+                rejectedCounter.increment();
+                return wait;
+            }
+
+            if (bucket.compareAndSet(arrival, start + replenishMillis)) {
+                return 0;
+            }
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private boolean evictIdle(long now) {
+        var previous = lastSweep.get();
+
+        if (now - previous >= replenishMillis && lastSweep.compareAndSet(previous, now)) {
+            buckets.values().removeIf(bucket -> bucket.get() <= now);
+        }
+
+        return buckets.size() < maxBuckets;
+    }
+
+    private void evictMostRefilled() {
+        String candidate = null;
+        var oldest = Long.MAX_VALUE;
+        var sampled = 0;
+
+        for (var iterator = buckets.entrySet().iterator(); iterator.hasNext() && sampled < EVICTION_SAMPLE; sampled++) {
+            var entry = iterator.next();
+            var arrival = entry.getValue().get();
+
+            if (arrival < oldest) {
+                oldest = arrival;
+                candidate = entry.getKey();
+            }
+        }
+
+        if (candidate != null) {
+            buckets.remove(candidate);
+        }
+    }
+}
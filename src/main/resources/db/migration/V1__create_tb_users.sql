@@ -0,0 +1,12 @@
+CREATE TABLE IF NOT EXISTS tb_users (
+    id UUID PRIMARY KEY,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    reset_token VARCHAR(255),
+    reset_token_expiration TIMESTAMP(6) WITH TIME ZONE,
+    role VARCHAR(255) CHECK (role IN ('ADMIN', 'CLIENT'))
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_tb_users_email_lower ON tb_users (lower(email));
+
+CREATE INDEX IF NOT EXISTS ix_tb_users_reset_token ON tb_users (reset_token) WHERE reset_token IS NOT NULL;
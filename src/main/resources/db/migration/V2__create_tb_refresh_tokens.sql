@@ -0,0 +1,13 @@
+CREATE TABLE IF NOT EXISTS tb_refresh_tokens (
+    id UUID PRIMARY KEY,
+    token_hash VARCHAR(64) NOT NULL,
+    family_id UUID NOT NULL,
+    user_id UUID NOT NULL REFERENCES tb_users (id) ON DELETE CASCADE,
+    expires_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    used_at TIMESTAMP(6) WITH TIME ZONE,
+    revoked_at TIMESTAMP(6) WITH TIME ZONE
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_tb_refresh_tokens_token_hash ON tb_refresh_tokens (token_hash);
+
+CREATE INDEX IF NOT EXISTS ix_tb_refresh_tokens_family_id ON tb_refresh_tokens (family_id);
@@ -0,0 +1,9 @@
+CREATE TABLE IF NOT EXISTS tb_login_attempts (
+    attempt_key VARCHAR(320) PRIMARY KEY,
+    window_start TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    attempts BIGINT NOT NULL,
+    locked_until TIMESTAMP(6) WITH TIME ZONE,
+    updated_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS ix_tb_login_attempts_updated_at ON tb_login_attempts (updated_at);
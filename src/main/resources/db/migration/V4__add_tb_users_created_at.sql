@@ -0,0 +1,3 @@
+ALTER TABLE tb_users ADD COLUMN IF NOT EXISTS created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT now();
+
+CREATE INDEX IF NOT EXISTS ix_tb_users_created_at ON tb_users (created_at);
@@ -0,0 +1,18 @@
+CREATE TABLE IF NOT EXISTS tb_password_reset_tokens (
+    token_hash BYTEA PRIMARY KEY,
+    user_id UUID NOT NULL REFERENCES tb_users (id) ON DELETE CASCADE,
+    expires_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS ix_tb_password_reset_tokens_expires_at ON tb_password_reset_tokens (expires_at);
+
+CREATE INDEX IF NOT EXISTS ix_tb_password_reset_tokens_user_id ON tb_password_reset_tokens (user_id);
+
+INSERT INTO tb_password_reset_tokens (token_hash, user_id, expires_at)
+SELECT sha256(convert_to(reset_token, 'UTF8')), id, reset_token_expiration
+FROM tb_users
+WHERE reset_token IS NOT NULL AND reset_token_expiration > now()
+ON CONFLICT DO NOTHING;
+
+ALTER TABLE tb_users DROP COLUMN IF EXISTS reset_token, DROP COLUMN IF EXISTS reset_token_expiration;
@@ -0,0 +1,6 @@
+CREATE INDEX IF NOT EXISTS ix_tb_refresh_tokens_user_id ON tb_refresh_tokens (user_id);
+
+CREATE INDEX IF NOT EXISTS ix_tb_refresh_tokens_expires_at ON tb_refresh_tokens (expires_at);
+
+CREATE INDEX IF NOT EXISTS ix_tb_refresh_tokens_revoked_at
+    ON tb_refresh_tokens (revoked_at) WHERE revoked_at IS NOT NULL;
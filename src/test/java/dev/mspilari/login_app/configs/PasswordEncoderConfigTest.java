@@ -0,0 +1,76 @@
+package dev.mspilari.login_app.configs;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class PasswordEncoderConfigTest {
+
+    private PasswordEncoder passwordEncoder(String encoderId, int strength) {
+        var config = new PasswordEncoderConfig();
+        ReflectionTestUtils.setField(config, "encoderId", encoderId);
+        ReflectionTestUtils.setField(config, "bcryptStrength", strength);
+        return config.passwordEncoder(new SimpleMeterRegistry());
+    }
+
+    @Test
+    void shouldMatchAndUpgradeLegacyBCryptHashes() {
+        var legacyHash = new BCryptPasswordEncoder(4).encode("12345");
+        var passwordEncoder = passwordEncoder("bcrypt", 5);
+
+        assertTrue(passwordEncoder.matches("12345", legacyHash));
+        assertTrue(passwordEncoder.upgradeEncoding(legacyHash));
+    }
+
+    @Test
+    void shouldUpgradeWeakerBCryptHashes() {
+        var weakHash = passwordEncoder("bcrypt", 4).encode("12345");
+        var passwordEncoder = passwordEncoder("bcrypt", 5);
+        var currentHash = passwordEncoder.encode("12345");
+
+        assertTrue(passwordEncoder.matches("12345", weakHash));
+        assertTrue(passwordEncoder.upgradeEncoding(weakHash));
+        assertFalse(passwordEncoder.upgradeEncoding(currentHash));
+    }
+
+    @Test
+    void shouldMoveBCryptHashesToAnotherAlgorithm() {
+        var bcryptHash = passwordEncoder("bcrypt", 4).encode("12345");
+        var passwordEncoder = passwordEncoder("argon2", 4);
+        var argon2Hash = passwordEncoder.encode("12345");
+
+        assertTrue(argon2Hash.startsWith("{argon2}"));
+        assertTrue(passwordEncoder.matches("12345", bcryptHash));
+        assertTrue(passwordEncoder.upgradeEncoding(bcryptHash));
+        assertFalse(passwordEncoder.upgradeEncoding(argon2Hash));
+    }
+
+    @Test
+    void shouldNotDowngradeStrongerBCryptHashes() {
+        var strongerHash = passwordEncoder("bcrypt", 6).encode("12345");
+        var passwordEncoder = passwordEncoder("bcrypt", 5);
+
+        assertTrue(passwordEncoder.matches("12345", strongerHash));
+        assertFalse(passwordEncoder.upgradeEncoding(strongerHash));
+    }
+
+    @Test
+    void shouldNotCalibrateBelowTheConfiguredStrength() {
+        var config = new PasswordEncoderConfig();
+        ReflectionTestUtils.setField(config, "encoderId", "bcrypt");
+        ReflectionTestUtils.setField(config, "bcryptStrength", 5);
+        ReflectionTestUtils.setField(config, "calibrate", true);
+        ReflectionTestUtils.setField(config, "bcryptMaxStrength", 4);
+        ReflectionTestUtils.setField(config, "targetMillis", 0L);
+
+        var hash = config.passwordEncoder(new SimpleMeterRegistry()).encode("12345");
+
+        assertTrue(hash.startsWith("{bcrypt}$2a$05$"));
+    }
+}
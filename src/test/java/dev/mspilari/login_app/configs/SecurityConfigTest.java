@@ -0,0 +1,107 @@
+package dev.mspilari.login_app.configs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class SecurityConfigTest {
+
+    private final MockServletContext servletContext = new MockServletContext();
+
+    private AnnotationConfigWebApplicationContext context;
+
+    private FilterChainProxy filterChainProxy;
+
+    @Configuration
+    @EnableWebMvc
+    static class Infrastructure {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+
+        @Bean
+        JwtConfig jwtConfig() {
+            return mock(JwtConfig.class);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(servletContext);
+        servletContext.setAttribute(WebApplicationContext.ROOT_WEB_APPLICATION_CONTEXT_ATTRIBUTE, context);
+        context.getEnvironment().getPropertySources()
+                .addFirst(new MapPropertySource("test", Map.of("rate-limit.enabled", "false")));
+        context.register(Infrastructure.class, SecurityConfig.class);
+        context.refresh();
+
+        filterChainProxy = context.getBean(FilterChainProxy.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    private MockHttpServletRequest request(String method, String path) {
+        var request = new MockHttpServletRequest(servletContext, method, path);
+        request.setServletPath(path);
+        return request;
+    }
+
+    @Test
+    void shouldPassAuthEndpointsThroughWithoutSessionOrTokenParsing() throws Exception {
+        var request = request("POST", "/user/login");
+        request.addHeader("Authorization", "Bearer not-a-jwt");
+        var response = new MockHttpServletResponse();
+        var chain = new MockFilterChain();
+
+        filterChainProxy.doFilter(request, response, chain);
+
+        assertNotNull(chain.getRequest());
+        assertEquals(200, response.getStatus());
+        assertNull(request.getSession(false));
+    }
+
+    @Test
+    void shouldRequireTokenOnOtherEndpoints() throws Exception {
+        var request = request("GET", "/user/profile");
+        var response = new MockHttpServletResponse();
+        var chain = new MockFilterChain();
+
+        filterChainProxy.doFilter(request, response, chain);
+
+        assertNull(chain.getRequest());
+        assertEquals(401, response.getStatus());
+        assertNull(request.getSession(false));
+    }
+}
@@ -0,0 +1,147 @@
+package dev.mspilari.login_app.domains.email.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class EmailDispatcherTest {
+
+    private final JavaMailSender mailSender = mock(JavaMailSender.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private EmailDispatcher emailDispatcher;
+
+    private EmailDispatcher startDispatcher(int queueCapacity, int maxAttempts) {
+        var dispatcher = new EmailDispatcher(mailSender, meterRegistry);
+        ReflectionTestUtils.setField(dispatcher, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(dispatcher, "offerTimeoutMillis", 10L);
+        ReflectionTestUtils.setField(dispatcher, "dispatcherThreads", 1);
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 10);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", maxAttempts);
+        ReflectionTestUtils.setField(dispatcher, "backoffMillis", 1L);
+        dispatcher.start();
+        return dispatcher;
+    }
+
+    private SimpleMailMessage mail(String to) {
+        var mail = new SimpleMailMessage();
+        mail.setTo(to);
+        return mail;
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        emailDispatcher.stop();
+    }
+
+    @Nested
+    class Dispatch {
+        @Test
+        void shouldSendQueuedEmails() {
+            emailDispatcher = startDispatcher(10, 1);
+            var mail = mail("test@email.com");
+
+            emailDispatcher.enqueue(mail);
+
+            verify(mailSender, timeout(2000)).send(new SimpleMailMessage[] { mail });
+        }
+
+        @Test
+        void shouldRetryOnlyFailedMessages() {
+            emailDispatcher = startDispatcher(10, 2);
+            var first = mail("first@email.com");
+            var second = mail("second@email.com");
+            var failures = new AtomicInteger();
+
+            doAnswer(invocation -> {
+                var batch = Arrays.asList((Object[]) invocation.getArguments());
+
+                if (batch.contains(second) && failures.getAndIncrement() == 0) {
+                    throw new MailSendException(Map.of(second, new RuntimeException("rejected")));
+                }
+                return null;
+            }).when(mailSender).send(any(SimpleMailMessage[].class));
+
+            emailDispatcher.enqueue(first);
+            emailDispatcher.enqueue(second);
+
+            verify(mailSender, timeout(2000).atLeastOnce()).send(new SimpleMailMessage[] { second });
+            assertEquals(0.0, meterRegistry.counter("mail.failed").count());
+        }
+
+        @Test
+        void shouldRunFailureCallbackOfUndeliveredMessagesOnly() throws Exception {
+            emailDispatcher = startDispatcher(10, 2);
+            var first = mail("first@email.com");
+            var second = mail("second@email.com");
+            var undelivered = new CountDownLatch(1);
+            var delivered = new AtomicInteger();
+
+            doAnswer(invocation -> {
+                var batch = Arrays.asList((Object[]) invocation.getArguments());
+
+                if (batch.contains(second)) {
+                    throw new MailSendException(Map.of(second, new RuntimeException("rejected")));
+                }
+                return null;
+            }).when(mailSender).send(any(SimpleMailMessage[].class));
+
+            emailDispatcher.enqueue(first, delivered::incrementAndGet);
+            emailDispatcher.enqueue(second, undelivered::countDown);
+
+            assertTrue(undelivered.await(2, TimeUnit.SECONDS));
+            assertEquals(0, delivered.get());
+            assertEquals(1.0, meterRegistry.counter("mail.failed").count());
+        }
+    }
+
+    @Nested
+    class Backpressure {
+        @Test
+        void shouldRejectWhenQueueIsFull() throws Exception {
+            emailDispatcher = startDispatcher(1, 1);
+            var blocker = new CountDownLatch(1);
+
+            doAnswer(invocation -> {
+                blocker.await();
+                return null;
+            }).when(mailSender).send(any(SimpleMailMessage[].class));
+
+            emailDispatcher.enqueue(mail("first@email.com"));
+            verify(mailSender, timeout(2000)).send(any(SimpleMailMessage[].class));
+            emailDispatcher.enqueue(mail("second@email.com"));
+
+            ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                    () -> emailDispatcher.enqueue(mail("third@email.com")));
+
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatusCode());
+            assertEquals(1.0, meterRegistry.counter("mail.rejected").count());
+
+            blocker.countDown();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package dev.mspilari.login_app.domains.email.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import dev.mspilari.login_app.exceptions.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class EmailServiceTest {
+
+    private final EmailDispatcher emailDispatcher = mock(EmailDispatcher.class);
+
+    private final EmailService emailService = new EmailService(emailDispatcher, new SimpleMeterRegistry());
+
+    private final AtomicInteger failures = new AtomicInteger();
+
+    private void send() {
+        emailService.sendEmail("test@email.com", "Subject", "Body", failures::incrementAndGet);
+    }
+
+    @Nested
+    class OutsideTransaction {
+        @Test
+        void shouldQueueImmediately() {
+            send();
+
+            verify(emailDispatcher).enqueue(any(SimpleMailMessage.class), any(Runnable.class));
+        }
+    }
+
+    @Nested
+    class InsideTransaction {
+        @BeforeEach
+        void begin() {
+            TransactionSynchronizationManager.initSynchronization();
+        }
+
+        @AfterEach
+        void end() {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        @Test
+        void shouldQueueOnlyAfterCommit() {
+            send();
+
+            verify(emailDispatcher, never()).enqueue(any(SimpleMailMessage.class), any(Runnable.class));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            verify(emailDispatcher).enqueue(any(SimpleMailMessage.class), any(Runnable.class));
+        }
+
+        @Test
+        void shouldNotQueueOnRollback() {
+            send();
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+            verify(emailDispatcher, never()).enqueue(any(SimpleMailMessage.class), any(Runnable.class));
+        }
+
+        @Test
+        void shouldReportAMailRejectedAfterCommit() {
+            doThrow(new ServiceBusyException("Mail queue is full, try again later", 1))
+                    .when(emailDispatcher).enqueue(any(SimpleMailMessage.class), any(Runnable.class));
+            send();
+
+            var synchronization = TransactionSynchronizationManager.getSynchronizations().get(0);
+
+            assertThrows(ServiceBusyException.class, synchronization::afterCommit);
+            assertEquals(1, failures.get());
+        }
+    }
+}
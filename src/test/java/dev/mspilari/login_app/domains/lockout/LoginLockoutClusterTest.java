@@ -0,0 +1,167 @@
+package dev.mspilari.login_app.domains.lockout;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPairGenerator;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import dev.mspilari.login_app.LoginAppApplication;
+import dev.mspilari.login_app.domains.lockout.repositories.AttemptStore;
+import dev.mspilari.login_app.domains.lockout.repositories.JdbcAttemptStore;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+public class LoginLockoutClusterTest {
+
+    private static final int NODES = 3;
+
+    private static final String PASSWORD = "12345";
+
+    @TempDir
+    static Path keyDir;
+
+    private static EmbeddedPostgres postgres;
+
+    private static final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @BeforeAll
+    static void startCluster() throws Exception {
+        postgres = EmbeddedPostgres.builder().start();
+
+        var keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        var keyPair = keyPairGenerator.generateKeyPair();
+        var publicKey = writePem(keyDir.resolve("public.key"), "PUBLIC KEY", keyPair.getPublic().getEncoded());
+        var privateKey = writePem(keyDir.resolve("private.key"), "PRIVATE KEY", keyPair.getPrivate().getEncoded());
+
+        for (int i = 0; i < NODES; i++) {
+            nodes.add(new SpringApplicationBuilder(LoginAppApplication.class).run(
+                    "--server.port=0",
+                    "--management.server.port=0",
+                    "--spring.main.banner-mode=off",
+                    "--spring.devtools.restart.enabled=false",
+                    "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                    "--spring.datasource.username=postgres",
+                    "--spring.datasource.password=postgres",
+                    "--spring.jpa.show-sql=false",
+                    "--spring.mail.host=localhost",
+                    "--jwt.public.key=file:" + publicKey,
+                    "--jwt.private.key=file:" + privateKey,
+                    "--rate-limit.enabled=false",
+                    "--login.lockout.store=jdbc",
+                    "--user.credential-cache.store=postgres",
+                    "--login.lockout.max-failures=5",
+                    "--login.lockout.window-seconds=86400",
+                    "--login.lockout.jdbc.flush-interval-millis=3600000",
+                    "--password.bcrypt.strength=4"));
+        }
+    }
+
+    @AfterAll
+    static void stopCluster() throws Exception {
+        nodes.forEach(ConfigurableApplicationContext::close);
+        nodes.clear();
+        postgres.close();
+    }
+
+    private static Path writePem(Path path, String type, byte[] encoded) throws Exception {
+        var body = Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(encoded);
+        return Files.writeString(path, "-----BEGIN " + type + "-----\n" + body + "\n-----END " + type + "-----\n");
+    }
+
+    private static void flushAll() {
+        for (int pass = 0; pass < 2; pass++) {
+            nodes.forEach(node -> ((JdbcAttemptStore) node.getBean(AttemptStore.class)).flush());
+        }
+    }
+
+    private HttpResponse<String> post(int node, String path, String email, String password) throws Exception {
+        var port = ((ServletWebServerApplicationContext) nodes.get(node)).getWebServer().getPort();
+        var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}"))
+                .build();
+
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String registeredEmail() throws Exception {
+        var email = UUID.randomUUID() + "@email.com";
+        assertEquals(200, post(0, "/user/register", email, PASSWORD).statusCode());
+        return email;
+    }
+
+    @Test
+    void shouldLockAccountAfterFailuresSpreadAcrossNodes() throws Exception {
+        var email = registeredEmail();
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(400, post(i % NODES, "/user/login", email, "99999").statusCode());
+        }
+        flushAll();
+
+        assertEquals(400, post(1, "/user/login", email, "99999").statusCode());
+        flushAll();
+
+        var response = post(2, "/user/login", email, PASSWORD);
+
+        assertEquals(429, response.statusCode());
+        assertEquals(true, response.headers().firstValue("Retry-After").isPresent());
+    }
+
+    @Test
+    void shouldShareSuccessfulLoginResetAcrossNodes() throws Exception {
+        var email = registeredEmail();
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(400, post(i % NODES, "/user/login", email, "99999").statusCode());
+        }
+        flushAll();
+
+        assertEquals(200, post(0, "/user/login", email, PASSWORD).statusCode());
+        flushAll();
+
+        assertEquals(400, post(2, "/user/login", email, "99999").statusCode());
+        flushAll();
+
+        assertEquals(200, post(1, "/user/login", email, PASSWORD).statusCode());
+    }
+
+    @Test
+    void shouldShareResetFromANodeThatHasNotSeenTheFailures() throws Exception {
+        var email = registeredEmail();
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(400, post(0, "/user/login", email, "99999").statusCode());
+        }
+        ((JdbcAttemptStore) nodes.get(0).getBean(AttemptStore.class)).flush();
+
+        assertEquals(200, post(2, "/user/login", email, PASSWORD).statusCode());
+        flushAll();
+
+        assertEquals(400, post(1, "/user/login", email, "99999").statusCode());
+        flushAll();
+
+        assertEquals(200, post(1, "/user/login", email, PASSWORD).statusCode());
+    }
+}
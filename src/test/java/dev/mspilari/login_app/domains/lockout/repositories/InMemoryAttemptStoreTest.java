@@ -0,0 +1,121 @@
+package dev.mspilari.login_app.domains.lockout.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class InMemoryAttemptStoreTest {
+
+    private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    };
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final InMemoryAttemptStore store = new InMemoryAttemptStore(Duration.ofHours(1), 2, meterRegistry, clock);
+
+    @Nested
+    class Counters {
+        @Test
+        void shouldCountWithinTheSameWindow() {
+            assertEquals(1, store.increment("key", Duration.ofMinutes(15)));
+            assertEquals(2, store.increment("key", Duration.ofMinutes(15)));
+            assertEquals(1, store.increment("other", Duration.ofMinutes(15)));
+        }
+
+        @Test
+        void shouldStartOverInANewWindow() {
+            store.increment("key", Duration.ofMinutes(15));
+            store.increment("key", Duration.ofMinutes(15));
+            now = now.plus(Duration.ofMinutes(15));
+
+            assertEquals(1, store.increment("key", Duration.ofMinutes(15)));
+        }
+
+        @Test
+        void shouldForgetCountsOnReset() {
+            store.increment("key", Duration.ofMinutes(15));
+            store.lock("key", now.plusSeconds(60));
+            store.reset("key");
+
+            assertEquals(Optional.empty(), store.lockedUntil("key"));
+            assertEquals(1, store.increment("key", Duration.ofMinutes(15)));
+        }
+    }
+
+    @Nested
+    class Lockout {
+        @Test
+        void shouldKeepLockAcrossWindows() {
+            store.lock("key", now.plus(Duration.ofMinutes(30)));
+            now = now.plus(Duration.ofMinutes(20));
+            store.increment("key", Duration.ofMinutes(15));
+
+            assertEquals(Optional.of(Instant.parse("2025-01-01T00:30:00Z")), store.lockedUntil("key"));
+        }
+
+        @Test
+        void shouldPurgeEntriesPastRetention() {
+            store.increment("idle", Duration.ofMinutes(15));
+            store.lock("locked", now.plus(Duration.ofHours(3)));
+            now = now.plus(Duration.ofHours(2));
+
+            store.purgeExpired();
+
+            assertEquals(1, store.size());
+            assertTrue(store.lockedUntil("locked").isPresent());
+        }
+    }
+
+    @Nested
+    class Bounds {
+        @Test
+        void shouldNotTrackNewKeysWhenFull() {
+            store.increment("first", Duration.ofMinutes(15));
+            store.increment("second", Duration.ofMinutes(15));
+
+            assertEquals(1, store.increment("third", Duration.ofMinutes(15)));
+            assertEquals(1, store.increment("third", Duration.ofMinutes(15)));
+            assertEquals(2, store.increment("first", Duration.ofMinutes(15)));
+            assertEquals(2, store.size());
+            assertEquals(2, meterRegistry.counter("login.attempts.overflow").count());
+        }
+
+        @Test
+        void shouldEvictIdleEntriesButKeepLocksWhenFull() {
+            store.increment("idle", Duration.ofMinutes(15));
+            store.lock("locked", now.plus(Duration.ofHours(3)));
+            now = now.plus(Duration.ofMinutes(15));
+
+            assertEquals(1, store.increment("new", Duration.ofMinutes(15)));
+            assertEquals(2, store.increment("new", Duration.ofMinutes(15)));
+            assertTrue(store.lockedUntil("locked").isPresent());
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package dev.mspilari.login_app.domains.lockout.services;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import dev.mspilari.login_app.domains.lockout.repositories.AttemptStore;
+import dev.mspilari.login_app.domains.lockout.repositories.InMemoryAttemptStore;
+import dev.mspilari.login_app.exceptions.TooManyAttemptsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class LoginLockoutServiceTest {
+
+    private static final String CLIENT_IP = "203.0.113.7";
+
+    private final AttemptStore attemptStore = mock(AttemptStore.class);
+
+    private LoginLockoutService loginLockoutService;
+
+    @BeforeEach
+    void setUp() {
+        loginLockoutService = lockoutService(attemptStore);
+    }
+
+    private static LoginLockoutService lockoutService(AttemptStore attemptStore) {
+        var service = new LoginLockoutService(attemptStore, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "maxFailures", 3L);
+        ReflectionTestUtils.setField(service, "accountMaxFailures", 10L);
+        ReflectionTestUtils.setField(service, "windowSeconds", 900L);
+        ReflectionTestUtils.setField(service, "lockoutSeconds", 600L);
+        return service;
+    }
+
+    @Nested
+    class Failures {
+        @Test
+        void shouldCountFailuresByClientAndNormalisedEmail() {
+            when(attemptStore.increment("login:203.0.113.7|test@email.com", Duration.ofSeconds(900))).thenReturn(1L);
+            when(attemptStore.increment("login:test@email.com", Duration.ofSeconds(900))).thenReturn(1L);
+
+            loginLockoutService.recordFailure(" Test@Email.com ", CLIENT_IP);
+
+            verify(attemptStore, times(0)).lock(any(String.class), any(Instant.class));
+        }
+
+        @Test
+        void shouldLockTheClientWhenItsFailuresReachTheLimit() {
+            when(attemptStore.increment("login:203.0.113.7|test@email.com", Duration.ofSeconds(900))).thenReturn(3L);
+            when(attemptStore.increment("login:test@email.com", Duration.ofSeconds(900))).thenReturn(3L);
+
+            loginLockoutService.recordFailure("test@email.com", CLIENT_IP);
+
+            verify(attemptStore, times(1)).lock(eq("login:203.0.113.7|test@email.com"), any(Instant.class));
+            verify(attemptStore, times(0)).lock(eq("login:test@email.com"), any(Instant.class));
+        }
+
+        @Test
+        void shouldLockTheAccountWhenFailuresFromAllClientsReachTheCeiling() {
+            when(attemptStore.increment("login:203.0.113.7|test@email.com", Duration.ofSeconds(900))).thenReturn(1L);
+            when(attemptStore.increment("login:test@email.com", Duration.ofSeconds(900))).thenReturn(10L);
+
+            loginLockoutService.recordFailure("test@email.com", CLIENT_IP);
+
+            verify(attemptStore, times(1)).lock(eq("login:test@email.com"), any(Instant.class));
+        }
+
+        @Test
+        void shouldResetTheClientOnSuccess() {
+            loginLockoutService.recordSuccess("Test@Email.com", CLIENT_IP);
+
+            verify(attemptStore, times(1)).reset("login:203.0.113.7|test@email.com");
+            verify(attemptStore, times(0)).reset("login:test@email.com");
+        }
+    }
+
+    @Nested
+    class Locked {
+        @Test
+        void shouldRejectWhileLocked() {
+            when(attemptStore.lockedUntil("login:203.0.113.7|test@email.com"))
+                    .thenReturn(Optional.of(Instant.now().plusSeconds(120)));
+
+            TooManyAttemptsException exception = assertThrows(TooManyAttemptsException.class,
+                    () -> loginLockoutService.checkNotLocked("test@email.com", CLIENT_IP));
+
+            assertEquals(HttpStatus.TOO_MANY_REQUESTS, exception.getStatusCode());
+            assertEquals("Too many failed login attempts, try again later", exception.getReason());
+            assertEquals("119", exception.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        }
+
+        @Test
+        void shouldRejectEveryClientWhileTheAccountIsLocked() {
+            when(attemptStore.lockedUntil("login:198.51.100.4|test@email.com")).thenReturn(Optional.empty());
+            when(attemptStore.lockedUntil("login:test@email.com"))
+                    .thenReturn(Optional.of(Instant.now().plusSeconds(120)));
+
+            assertThrows(TooManyAttemptsException.class,
+                    () -> loginLockoutService.checkNotLocked("test@email.com", "198.51.100.4"));
+        }
+
+        @Test
+        void shouldAllowOnceTheLockExpired() {
+            when(attemptStore.lockedUntil("login:203.0.113.7|test@email.com"))
+                    .thenReturn(Optional.of(Instant.now().minusSeconds(1)));
+            when(attemptStore.lockedUntil("login:test@email.com")).thenReturn(Optional.empty());
+
+            assertDoesNotThrow(() -> loginLockoutService.checkNotLocked("test@email.com", CLIENT_IP));
+        }
+
+        @Test
+        void shouldNotLockOutTheOwnerLoggingInFromAnotherAddress() {
+            var meterRegistry = new SimpleMeterRegistry();
+            var service = lockoutService(
+                    new InMemoryAttemptStore(Duration.ofMinutes(15), 1_000, meterRegistry, Clock.systemUTC()));
+
+            for (int i = 0; i < 3; i++) {
+                service.recordFailure("test@email.com", CLIENT_IP);
+            }
+
+            assertThrows(TooManyAttemptsException.class,
+                    () -> service.checkNotLocked("test@email.com", CLIENT_IP));
+            assertDoesNotThrow(() -> service.checkNotLocked("test@email.com", "198.51.100.4"));
+        }
+    }
+}
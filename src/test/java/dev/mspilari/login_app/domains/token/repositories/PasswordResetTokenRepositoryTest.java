@@ -0,0 +1,176 @@
+package dev.mspilari.login_app.domains.token.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+public class PasswordResetTokenRepositoryTest {
+
+    private static EmbeddedPostgres postgres;
+
+    private static JdbcTemplate jdbcTemplate;
+
+    private final PasswordResetTokenRepository repository = new PasswordResetTokenRepository(jdbcTemplate,
+            new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+
+    private final Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+
+    private UUID userId;
+
+    @BeforeAll
+    static void startDatabase() throws Exception {
+        postgres = EmbeddedPostgres.builder().start();
+        Flyway.configure().dataSource(postgres.getPostgresDatabase()).load().migrate();
+        jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+    }
+
+    @AfterAll
+    static void stopDatabase() throws Exception {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM tb_users");
+        userId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO tb_users (id, email, password, role) VALUES (?, 'test@email.com', 'old', 'CLIENT')",
+                userId);
+    }
+
+    private byte[] hash(String token) {
+        return token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String password() {
+        return jdbcTemplate.queryForObject("SELECT password FROM tb_users WHERE id = ?", String.class, userId);
+    }
+
+    private void refreshToken(UUID owner) {
+        jdbcTemplate.update("""
+                INSERT INTO tb_refresh_tokens (id, token_hash, family_id, user_id, expires_at)
+                VALUES (?, ?, ?, ?, now() + interval '1 day')""",
+                UUID.randomUUID(), UUID.randomUUID().toString(), UUID.randomUUID(), owner);
+    }
+
+    private long tokens() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM tb_password_reset_tokens", Long.class);
+    }
+
+    @Test
+    void shouldFindExpirationByHash() {
+        repository.insert(hash("token"), userId, now.plusSeconds(300));
+
+        assertEquals(now.plusSeconds(300), repository.findExpiresAt(hash("token")).orElseThrow());
+        assertTrue(repository.findExpiresAt(hash("other")).isEmpty());
+    }
+
+    @Test
+    void shouldInsertOnlyWhenNoLiveTokenWasCreatedSince() {
+        assertTrue(repository.insertIfNoneSince(hash("first"), userId, now.plusSeconds(300), now, now.minusSeconds(60)));
+        assertFalse(repository.insertIfNoneSince(hash("second"), userId, now.plusSeconds(300), now.plusSeconds(30),
+                now.minusSeconds(30)));
+        assertTrue(repository.insertIfNoneSince(hash("third"), userId, now.plusSeconds(400), now.plusSeconds(100),
+                now.plusSeconds(40)));
+        assertEquals(2, tokens());
+    }
+
+    @Test
+    void shouldInsertOnlyOnceForConcurrentRequestsOfOneUser() throws Exception {
+        var inserted = new AtomicInteger();
+        var start = new CountDownLatch(1);
+
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                var token = hash("concurrent-" + i);
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    if (repository.insertIfNoneSince(token, userId, now.plusSeconds(300), now, now.minusSeconds(60))) {
+                        inserted.incrementAndGet();
+                    }
+                });
+            }
+            start.countDown();
+        }
+
+        assertEquals(1, inserted.get());
+        assertEquals(1, tokens());
+    }
+
+    @Test
+    void shouldChangePasswordAndRevokeEveryTokenOfTheUser() {
+        repository.insert(hash("first"), userId, now.plusSeconds(300));
+        repository.insert(hash("second"), userId, now.plusSeconds(300));
+
+        assertEquals(Optional.of("test@email.com"), repository.consume(hash("first"), now, "new"));
+
+        assertEquals("new", password());
+        assertEquals(0, tokens());
+        assertEquals(Optional.empty(), repository.consume(hash("second"), now, "again"));
+        assertEquals("new", password());
+    }
+
+    @Test
+    void shouldRevokeRefreshTokensOfTheUserOnReset() {
+        var otherId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO tb_users (id, email, password, role) VALUES (?, 'other@email.com', 'old', 'CLIENT')",
+                otherId);
+        refreshToken(userId);
+        refreshToken(otherId);
+        repository.insert(hash("token"), userId, now.plusSeconds(300));
+
+        repository.consume(hash("token"), now, "new");
+
+        assertEquals(now, jdbcTemplate.queryForObject(
+                "SELECT revoked_at FROM tb_refresh_tokens WHERE user_id = ?", OffsetDateTime.class, userId).toInstant());
+        assertNull(jdbcTemplate.queryForObject(
+                "SELECT revoked_at FROM tb_refresh_tokens WHERE user_id = ?", OffsetDateTime.class, otherId));
+    }
+
+    @Test
+    void shouldNotConsumeExpiredToken() {
+        repository.insert(hash("token"), userId, now.minusSeconds(1));
+
+        assertEquals(Optional.empty(), repository.consume(hash("token"), now, "new"));
+
+        assertEquals("old", password());
+        assertEquals(1, tokens());
+    }
+
+    @Test
+    void shouldDeleteExpiredTokensInBatches() {
+        for (int i = 0; i < 5; i++) {
+            repository.insert(hash("expired-" + i), userId, now.minusSeconds(i + 1));
+        }
+        repository.insert(hash("live"), userId, now.plusSeconds(300));
+
+        assertEquals(3, repository.deleteExpired(now, 3));
+        assertEquals(2, repository.deleteExpired(now, 3));
+        assertEquals(0, repository.deleteExpired(now, 3));
+        assertEquals(1, tokens());
+    }
+}
@@ -0,0 +1,184 @@
+package dev.mspilari.login_app.domains.token.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import dev.mspilari.login_app.domains.token.repositories.PasswordResetTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class PasswordResetTokenServiceTest {
+
+    private final Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+    private final PasswordResetTokenRepository passwordResetTokenRepository = mock(PasswordResetTokenRepository.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private PasswordResetTokenService passwordResetTokenService;
+
+    @BeforeEach
+    void setUp() {
+        passwordResetTokenService = new PasswordResetTokenService(passwordResetTokenRepository, meterRegistry,
+                Clock.fixed(now, ZoneOffset.UTC));
+        ReflectionTestUtils.setField(passwordResetTokenService, "tokenExpirationSeconds", 300L);
+        ReflectionTestUtils.setField(passwordResetTokenService, "dedupWindowSeconds", 60L);
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("auth.reset.tokens").tag("result", result).counter().count();
+    }
+
+    private double emails(String result) {
+        return meterRegistry.get("auth.reset.emails").tag("result", result).counter().count();
+    }
+
+    @Nested
+    class Issue {
+        @Test
+        void shouldStoreOnlyTheHashOfTheTokenAndSendIt() {
+            var userId = UUID.randomUUID();
+            var hash = ArgumentCaptor.forClass(byte[].class);
+            var sent = new ArrayList<String>();
+
+            when(passwordResetTokenRepository.insertIfNoneSince(any(), eq(userId), eq(now.plusSeconds(300)), eq(now),
+                    eq(now.minusSeconds(60)))).thenReturn(true);
+
+            assertTrue(passwordResetTokenService.issue(userId, (token, onFailure) -> sent.add(token)));
+
+            verify(passwordResetTokenRepository).insertIfNoneSince(hash.capture(), eq(userId), any(), any(), any());
+            assertEquals(1, sent.size());
+            assertArrayEquals(PasswordResetTokenService.hash(sent.get(0)), hash.getValue());
+            assertEquals(32, hash.getValue().length);
+            assertEquals(1.0, count("issued"));
+            assertEquals(1.0, emails("sent"));
+        }
+
+        @Test
+        void shouldSuppressWhenATokenWasIssuedWithinTheWindow() {
+            var sent = new ArrayList<String>();
+
+            when(passwordResetTokenRepository.insertIfNoneSince(any(), any(), any(), any(), any())).thenReturn(false);
+
+            assertFalse(passwordResetTokenService.issue(UUID.randomUUID(), (token, onFailure) -> sent.add(token)));
+
+            assertTrue(sent.isEmpty());
+            assertEquals(1.0, emails("suppressed"));
+            assertEquals(0.0, emails("sent"));
+        }
+
+        @Test
+        void shouldDeleteTheTokenWhenSendingFails() {
+            when(passwordResetTokenRepository.insertIfNoneSince(any(), any(), any(), any(), any())).thenReturn(true);
+
+            assertThrows(IllegalStateException.class, () -> passwordResetTokenService.issue(UUID.randomUUID(),
+                    (token, onFailure) -> {
+                        throw new IllegalStateException("queue full");
+                    }));
+
+            verify(passwordResetTokenRepository).delete(any());
+            assertEquals(0.0, emails("sent"));
+        }
+
+        @Test
+        void shouldDeleteTheTokenWhenTheQueuedMailIsUndelivered() {
+            var failures = new ArrayList<Runnable>();
+            var hash = ArgumentCaptor.forClass(byte[].class);
+
+            when(passwordResetTokenRepository.insertIfNoneSince(any(), any(), any(), any(), any())).thenReturn(true);
+
+            assertTrue(passwordResetTokenService.issue(UUID.randomUUID(), (token, onFailure) -> failures.add(onFailure)));
+            verify(passwordResetTokenRepository, never()).delete(any());
+
+            failures.get(0).run();
+
+            verify(passwordResetTokenRepository).insertIfNoneSince(hash.capture(), any(), any(), any(), any());
+            verify(passwordResetTokenRepository).delete(hash.getValue());
+            assertEquals(1.0, emails("undelivered"));
+        }
+
+        @Test
+        void shouldAlwaysIssueWhenTheWindowIsDisabled() {
+            ReflectionTestUtils.setField(passwordResetTokenService, "dedupWindowSeconds", 0L);
+            var userId = UUID.randomUUID();
+
+            assertTrue(passwordResetTokenService.issue(userId, (token, onFailure) -> {
+            }));
+
+            verify(passwordResetTokenRepository).insert(any(), eq(userId), eq(now.plusSeconds(300)));
+            verify(passwordResetTokenRepository, never()).insertIfNoneSince(any(), any(), any(), any(), any());
+        }
+    }
+
+    @Nested
+    class Redeem {
+        @Test
+        void shouldRejectUnknownToken() {
+            when(passwordResetTokenRepository.findExpiresAt(any())).thenReturn(Optional.empty());
+
+            ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                    () -> passwordResetTokenService.checkValid("unknown"));
+
+            assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+            assertEquals("User not found", exception.getReason());
+            assertEquals(1.0, count("invalid"));
+        }
+
+        @Test
+        void shouldRejectExpiredToken() {
+            when(passwordResetTokenRepository.findExpiresAt(any())).thenReturn(Optional.of(now.minusSeconds(1)));
+
+            ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                    () -> passwordResetTokenService.checkValid("expired"));
+
+            assertEquals("Token expired", exception.getReason());
+            assertEquals(1.0, count("expired"));
+        }
+
+        @Test
+        void shouldConsumeTokenAndChangePassword() {
+            when(passwordResetTokenRepository.findExpiresAt(any())).thenReturn(Optional.of(now.plusSeconds(60)));
+            when(passwordResetTokenRepository.consume(any(), eq(now), eq("encoded")))
+                    .thenReturn(Optional.of("test@email.com"));
+
+            assertDoesNotThrow(() -> passwordResetTokenService.checkValid("token"));
+            assertEquals("test@email.com", passwordResetTokenService.consume("token", "encoded"));
+            assertEquals(1.0, count("redeemed"));
+        }
+
+        @Test
+        void shouldRejectTokenConsumedConcurrently() {
+            when(passwordResetTokenRepository.consume(any(), eq(now), eq("encoded"))).thenReturn(Optional.empty());
+
+            ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                    () -> passwordResetTokenService.consume("token", "encoded"));
+
+            assertEquals("User not found", exception.getReason());
+            assertEquals(0.0, count("redeemed"));
+        }
+    }
+}
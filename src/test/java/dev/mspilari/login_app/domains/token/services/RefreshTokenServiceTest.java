@@ -0,0 +1,149 @@
+package dev.mspilari.login_app.domains.token.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import dev.mspilari.login_app.domains.token.entity.RefreshTokenEntity;
+import dev.mspilari.login_app.domains.token.repositories.RefreshTokenRepository;
+import dev.mspilari.login_app.domains.user.entity.UserEntity;
+import dev.mspilari.login_app.domains.user.enums.Role;
+import dev.mspilari.login_app.domains.user.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class RefreshTokenServiceTest {
+
+    private final Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+    private final RefreshTokenRepository refreshTokenRepository = mock(RefreshTokenRepository.class);
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, userRepository, meterRegistry,
+                Clock.fixed(now, ZoneOffset.UTC));
+        ReflectionTestUtils.setField(refreshTokenService, "refreshTokenExpirationSeconds", 3600L);
+    }
+
+    private RefreshTokenEntity storedToken(String rawToken, UUID familyId, Instant expiresAt) {
+        var user = new UserEntity("test@email.com", "12345", Role.CLIENT);
+        var entity = new RefreshTokenEntity(RefreshTokenService.hash(rawToken), familyId, user, expiresAt);
+        ReflectionTestUtils.setField(entity, "id", UUID.randomUUID());
+        return entity;
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("auth.refresh.tokens").tag("result", result).counter().count();
+    }
+
+    @Nested
+    class Issue {
+        @Test
+        void shouldStoreOnlyTheHashOfTheToken() {
+            var userId = UUID.randomUUID();
+
+            when(userRepository.getReferenceById(userId)).thenReturn(new UserEntity());
+
+            var token = refreshTokenService.issue(userId);
+
+            verify(refreshTokenRepository, times(1)).save(argThat(entity -> !entity.getTokenHash().equals(token)
+                    && entity.getTokenHash().equals(RefreshTokenService.hash(token))
+                    && entity.getExpiresAt().equals(now.plusSeconds(3600))));
+            assertEquals(1.0, count("issued"));
+        }
+    }
+
+    @Nested
+    class Rotate {
+        @Test
+        void shouldRotateWithinTheSameFamily() {
+            var familyId = UUID.randomUUID();
+            var current = storedToken("old-token", familyId, now.plusSeconds(60));
+
+            when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("old-token")))
+                    .thenReturn(Optional.of(current));
+            when(refreshTokenRepository.markUsed(current.getId(), now)).thenReturn(1);
+
+            var rotated = refreshTokenService.rotate("old-token");
+
+            assertEquals("test@email.com", rotated.email());
+            assertEquals(Role.CLIENT, rotated.role());
+            assertNotEquals("old-token", rotated.refreshToken());
+            verify(refreshTokenRepository, times(1)).save(argThat(entity -> entity.getFamilyId().equals(familyId)
+                    && entity.getTokenHash().equals(RefreshTokenService.hash(rotated.refreshToken()))));
+            assertEquals(1.0, count("rotated"));
+        }
+
+        @Test
+        void shouldRevokeFamilyWhenTokenIsReused() {
+            var familyId = UUID.randomUUID();
+            var current = storedToken("old-token", familyId, now.plusSeconds(60));
+
+            when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("old-token")))
+                    .thenReturn(Optional.of(current));
+            when(refreshTokenRepository.markUsed(current.getId(), now)).thenReturn(0);
+
+            ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                    () -> refreshTokenService.rotate("old-token"));
+
+            assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+            assertEquals("Invalid refresh token", exception.getReason());
+            verify(refreshTokenRepository, times(1)).revokeFamily(familyId, now);
+            verify(refreshTokenRepository, times(0)).save(any(RefreshTokenEntity.class));
+            assertEquals(1.0, count("reused"));
+        }
+
+        @Test
+        void shouldNotRotateExpiredToken() {
+            var current = storedToken("old-token", UUID.randomUUID(), now.minusSeconds(1));
+
+            when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("old-token")))
+                    .thenReturn(Optional.of(current));
+            when(refreshTokenRepository.markUsed(current.getId(), now)).thenReturn(1);
+
+            ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                    () -> refreshTokenService.rotate("old-token"));
+
+            assertEquals("Invalid refresh token", exception.getReason());
+            verify(refreshTokenRepository, times(0)).save(any(RefreshTokenEntity.class));
+            assertEquals(1.0, count("invalid"));
+        }
+
+        @Test
+        void shouldNotRotateUnknownToken() {
+            when(refreshTokenRepository.findByTokenHash(any(String.class))).thenReturn(Optional.empty());
+
+            ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                    () -> refreshTokenService.rotate("unknown-token"));
+
+            assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+            verify(refreshTokenRepository, times(0)).markUsed(any(UUID.class), eq(now));
+            assertEquals(1.0, count("invalid"));
+        }
+    }
+}
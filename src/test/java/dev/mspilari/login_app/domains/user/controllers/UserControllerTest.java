@@ -19,11 +19,14 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import dev.mspilari.login_app.domains.user.dto.UserDto;
 import dev.mspilari.login_app.domains.user.dto.UserRedeemPasswordDto;
+import dev.mspilari.login_app.domains.user.dto.UserRefreshTokenDto;
 import dev.mspilari.login_app.domains.user.dto.UserResetPasswordDto;
+import dev.mspilari.login_app.domains.user.dto.UserTokensDto;
 import dev.mspilari.login_app.domains.user.services.UserService;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,34 +39,73 @@ public class UserControllerTest {
 
     @Nested
     class LoginTests {
+        private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+        LoginTests() {
+            request.setRemoteAddr("203.0.113.7");
+        }
+
 
         @Test
         void shouldLoginSuccessfully() {
             var userDto = new UserDto("test@email.com", "12345");
 
-            when(userService.login(userDto.email(), userDto.password())).thenReturn("FakeToken");
+            when(userService.login(userDto.email(), userDto.password(), "203.0.113.7")).thenReturn(new UserTokensDto("FakeToken", "FakeRefreshToken"));
 
-            ResponseEntity<Map<String, String>> response = userController.login(userDto);
+            ResponseEntity<Map<String, String>> response = userController.login(userDto, request);
 
             assertEquals(HttpStatus.OK, response.getStatusCode());
             assertEquals("FakeToken", response.getBody().get("token"));
+            assertEquals("FakeRefreshToken", response.getBody().get("refreshToken"));
         }
 
         @Test
         void shouldFailLoginWithInvalidCredentials() {
             var userDto = new UserDto("test@email.com", "wrongPassword");
 
-            when(userService.login(userDto.email(), userDto.password()))
+            when(userService.login(userDto.email(), userDto.password(), "203.0.113.7"))
                     .thenThrow(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid login credentials"));
 
             ResponseStatusException exception = assertThrows(ResponseStatusException.class,
-                    () -> userController.login(userDto));
+                    () -> userController.login(userDto, request));
 
             assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
             assertEquals("Invalid login credentials", exception.getReason());
         }
     }
 
+    @Nested
+    class RefreshTests {
+
+        @Test
+        void shouldRefreshSuccessfully() {
+            var userDto = new UserRefreshTokenDto("FakeRefreshToken");
+
+            when(userService.refresh(userDto.refreshToken()))
+                    .thenReturn(new UserTokensDto("NewToken", "NewRefreshToken"));
+
+            ResponseEntity<Map<String, String>> response = userController.refresh(userDto);
+
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals("NewToken", response.getBody().get("token"));
+            assertEquals("NewRefreshToken", response.getBody().get("refreshToken"));
+        }
+
+        @Test
+        void shouldFailRefreshWithInvalidToken() {
+            var userDto = new UserRefreshTokenDto("InvalidRefreshToken");
+
+            when(userService.refresh(userDto.refreshToken()))
+                    .thenThrow(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid refresh token"));
+
+            ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                    () -> userController.refresh(userDto));
+
+            assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+            assertEquals("Invalid refresh token", exception.getReason());
+        }
+    }
+
     @Nested
     class RegisterTests {
         @Test
@@ -0,0 +1,136 @@
+package dev.mspilari.login_app.domains.user.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import dev.mspilari.login_app.domains.user.dto.UserCredentialsDto;
+import dev.mspilari.login_app.domains.user.enums.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class InMemoryCredentialCacheTest {
+
+    private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    };
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final InMemoryCredentialCache cache = new InMemoryCredentialCache(2, Duration.ofSeconds(60),
+            meterRegistry, clock);
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Function<String, Optional<UserCredentialsDto>> loader = email -> {
+        loads.incrementAndGet();
+        return Optional.of(new UserCredentialsDto(UUID.randomUUID(), email, "hash-" + loads.get(), Role.CLIENT));
+    };
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+
+    @Nested
+    class Lookups {
+        @Test
+        void shouldServeRepeatedLookupsFromMemory() {
+            var first = cache.get("test@email.com", loader);
+            var second = cache.get("TEST@email.com", loader);
+
+            assertEquals(first, second);
+            assertEquals(1, loads.get());
+            assertEquals(0.5, gauge("user.credentials.cache.hit.ratio"));
+            assertTrue(gauge("user.credentials.cache.memory") > 0);
+        }
+
+        @Test
+        void shouldNotCacheUnknownEmails() {
+            cache.get("unknown@email.com", email -> Optional.empty());
+
+            assertEquals(0, cache.size());
+        }
+
+        @Test
+        void shouldReloadAfterTtl() {
+            cache.get("test@email.com", loader);
+            now = now.plusSeconds(61);
+
+            assertEquals("hash-2", cache.get("test@email.com", loader).orElseThrow().password());
+        }
+    }
+
+    @Nested
+    class Invalidation {
+        @Test
+        void shouldReloadAfterInvalidation() {
+            cache.get("test@email.com", loader);
+            cache.invalidate("Test@Email.com");
+
+            assertEquals("hash-2", cache.get("test@email.com", loader).orElseThrow().password());
+            assertEquals(2, loads.get());
+        }
+
+        @Test
+        void shouldDiscardLoadRacingWithInvalidation() {
+            cache.get("test@email.com", email -> {
+                cache.invalidate(email);
+                return loader.apply(email);
+            });
+
+            assertEquals(0, cache.size());
+        }
+
+        @Test
+        void shouldReleaseMemoryWhenCleared() {
+            cache.get("first@email.com", loader);
+            cache.get("second@email.com", loader);
+            cache.invalidateAll();
+
+            assertEquals(0, cache.size());
+            assertEquals(0, cache.estimatedBytes());
+        }
+    }
+
+    @Nested
+    class Bounds {
+        @Test
+        void shouldEvictOldestEntryWhenFull() {
+            cache.get("first@email.com", loader);
+            cache.get("second@email.com", loader);
+            cache.get("third@email.com", loader);
+
+            assertEquals(2, cache.size());
+            assertEquals(1.0, meterRegistry.counter("user.credentials.cache.evictions").count());
+
+            cache.get("first@email.com", loader);
+            assertEquals(4, loads.get());
+        }
+    }
+}
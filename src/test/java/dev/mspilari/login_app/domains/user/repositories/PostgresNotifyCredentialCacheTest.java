@@ -0,0 +1,94 @@
+package dev.mspilari.login_app.domains.user.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import dev.mspilari.login_app.domains.user.dto.UserCredentialsDto;
+import dev.mspilari.login_app.domains.user.enums.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+public class PostgresNotifyCredentialCacheTest {
+
+    private static EmbeddedPostgres postgres;
+
+    private PostgresNotifyCredentialCache first;
+
+    private PostgresNotifyCredentialCache second;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Function<String, Optional<UserCredentialsDto>> loader = email -> {
+        loads.incrementAndGet();
+        return Optional.of(new UserCredentialsDto(UUID.randomUUID(), email, "hash", Role.CLIENT));
+    };
+
+    @BeforeAll
+    static void startDatabase() throws Exception {
+        postgres = EmbeddedPostgres.builder().start();
+    }
+
+    @AfterAll
+    static void stopDatabase() throws Exception {
+        postgres.close();
+    }
+
+    private static PostgresNotifyCredentialCache node() {
+        var meterRegistry = new SimpleMeterRegistry();
+        var dataSource = postgres.getPostgresDatabase();
+        var cache = new PostgresNotifyCredentialCache(
+                new InMemoryCredentialCache(100, Duration.ofMinutes(5), meterRegistry),
+                new JdbcTemplate(dataSource), dataSource, 50, 50, meterRegistry);
+        cache.start();
+        return cache;
+    }
+
+    private static void awaitListening(PostgresNotifyCredentialCache cache) throws InterruptedException {
+        for (int i = 0; i < 100 && !cache.isListening(); i++) {
+            Thread.sleep(20);
+        }
+        assertTrue(cache.isListening());
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        first = node();
+        second = node();
+        awaitListening(first);
+        awaitListening(second);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        first.stop();
+        second.stop();
+    }
+
+    @Test
+    void shouldInvalidateEntriesOnOtherNodes() throws Exception {
+        second.get("test@email.com", loader);
+        second.get("test@email.com", loader);
+        assertEquals(1, loads.get());
+
+        first.invalidate("Test@Email.com");
+
+        for (int i = 0; i < 100 && loads.get() == 1; i++) {
+            Thread.sleep(20);
+            second.get("test@email.com", loader);
+        }
+        assertEquals(2, loads.get());
+    }
+}
@@ -0,0 +1,72 @@
+package dev.mspilari.login_app.domains.user.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import dev.mspilari.login_app.domains.user.enums.Role;
+import dev.mspilari.login_app.domains.user.repositories.UserImportRepository.NewUser;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+public class UserImportRepositoryTest {
+
+    private static EmbeddedPostgres postgres;
+
+    private static JdbcTemplate jdbcTemplate;
+
+    private final UserImportRepository repository = new UserImportRepository(jdbcTemplate);
+
+    @BeforeAll
+    static void startDatabase() throws Exception {
+        postgres = EmbeddedPostgres.builder().start();
+        Flyway.configure().dataSource(postgres.getPostgresDatabase()).load().migrate();
+        jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+    }
+
+    @AfterAll
+    static void stopDatabase() throws Exception {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM tb_users");
+        jdbcTemplate.update("INSERT INTO tb_users (id, email, password, role) VALUES (?, 'Existing@Email.com', 'old', 'ADMIN')",
+                UUID.randomUUID());
+    }
+
+    private long users() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM tb_users", Long.class);
+    }
+
+    @Test
+    void shouldFindExistingEmailsCaseInsensitively() {
+        assertEquals(Set.of("existing@email.com"),
+                repository.findExistingEmails(List.of("existing@email.com", "new@email.com")));
+    }
+
+    @Test
+    void shouldInsertBatchAndReturnOnlyTheRowsThatWentIn() {
+        var fresh = new NewUser(UUID.randomUUID(), "new@email.com", "hash-1");
+        var existing = new NewUser(UUID.randomUUID(), "EXISTING@email.com", "hash-2");
+        var repeated = new NewUser(UUID.randomUUID(), "New@Email.com", "hash-3");
+
+        var inserted = repository.insertAll(List.of(fresh, existing, repeated), Role.CLIENT);
+
+        assertEquals(Set.of(fresh.id()), inserted);
+        assertEquals(2, users());
+        assertEquals("CLIENT", jdbcTemplate.queryForObject("SELECT role FROM tb_users WHERE id = ?", String.class,
+                fresh.id()));
+        assertEquals("old", jdbcTemplate.queryForObject(
+                "SELECT password FROM tb_users WHERE lower(email) = 'existing@email.com'", String.class));
+    }
+}
@@ -0,0 +1,117 @@
+package dev.mspilari.login_app.domains.user.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import dev.mspilari.login_app.domains.user.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class EmailMembershipFilterTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private EmailMembershipFilter emailMembershipFilter;
+
+    @BeforeEach
+    void setUp() {
+        emailMembershipFilter = new EmailMembershipFilter(userRepository, mock(PlatformTransactionManager.class),
+                meterRegistry);
+        ReflectionTestUtils.setField(emailMembershipFilter, "enabled", true);
+        ReflectionTestUtils.setField(emailMembershipFilter, "expectedInsertions", 1000L);
+        ReflectionTestUtils.setField(emailMembershipFilter, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(emailMembershipFilter, "catchUpIntervalMillis", 5000L);
+        ReflectionTestUtils.setField(emailMembershipFilter, "catchUpOverlapMillis", 5000L);
+    }
+
+    @Nested
+    class BeforeBuild {
+        @Test
+        void shouldTreatEveryEmailAsPossibleUntilBuilt() {
+            assertTrue(emailMembershipFilter.mightContain("missing@email.com"));
+            assertEquals(0.0, meterRegistry.get("user.email.filter.memory").gauge().value());
+        }
+    }
+
+    @Nested
+    class AfterBuild {
+        @BeforeEach
+        void build() {
+            when(userRepository.streamEmails()).thenReturn(Stream.of("test@email.com", "other@email.com"));
+            emailMembershipFilter.rebuild();
+        }
+
+        @Test
+        void shouldShortCircuitUnknownEmails() {
+            assertTrue(emailMembershipFilter.mightContain("Test@Email.com"));
+            assertFalse(emailMembershipFilter.mightContain("missing@email.com"));
+            assertEquals(1.0, meterRegistry.get("user.email.filter").tag("result", "miss").counter().count());
+            assertTrue(meterRegistry.get("user.email.filter.memory").gauge().value() > 0);
+        }
+
+        @Test
+        void shouldIncludeEmailsAddedAfterBuild() {
+            emailMembershipFilter.add("New@Email.com");
+
+            assertTrue(emailMembershipFilter.mightContain("new@email.com"));
+        }
+
+        @Test
+        void shouldCatchUpOnEmailsCreatedByOtherNodes() {
+            when(userRepository.findEmailsCreatedSince(any(Instant.class))).thenReturn(List.of("remote@email.com"));
+
+            emailMembershipFilter.catchUp();
+
+            assertTrue(emailMembershipFilter.mightContain("remote@email.com"));
+        }
+
+        @Test
+        void shouldGoToTheDatabaseWhileCatchUpKeepsFailing() {
+            ReflectionTestUtils.setField(emailMembershipFilter, "lastCatchUp",
+                    Instant.now().minus(Duration.ofSeconds(30)));
+            when(userRepository.findEmailsCreatedSince(any(Instant.class)))
+                    .thenThrow(new DataAccessResourceFailureException("down"));
+
+            emailMembershipFilter.catchUp();
+
+            assertTrue(emailMembershipFilter.mightContain("missing@email.com"));
+            assertEquals(1.0, meterRegistry.get("user.email.filter").tag("result", "stale").counter().count());
+            assertTrue(meterRegistry.get("user.email.filter.staleness").gauge().value() >= 30);
+        }
+
+        @Test
+        void shouldFilterAgainOnceCaughtUp() {
+            ReflectionTestUtils.setField(emailMembershipFilter, "lastCatchUp",
+                    Instant.now().minus(Duration.ofSeconds(30)));
+            when(userRepository.findEmailsCreatedSince(any(Instant.class))).thenReturn(List.of());
+
+            emailMembershipFilter.catchUp();
+
+            assertFalse(emailMembershipFilter.mightContain("missing@email.com"));
+            assertTrue(meterRegistry.get("user.email.filter.staleness").gauge().value() < 30);
+        }
+
+        @Test
+        void shouldNotFilterNonAsciiEmails() {
+            assertTrue(emailMembershipFilter.mightContain("josé@email.com"));
+        }
+    }
+}
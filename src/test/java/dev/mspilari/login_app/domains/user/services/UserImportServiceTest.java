@@ -0,0 +1,322 @@
+package dev.mspilari.login_app.domains.user.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.mspilari.login_app.domains.user.dto.UserImportSummaryDto;
+import dev.mspilari.login_app.domains.user.enums.Role;
+import dev.mspilari.login_app.domains.user.enums.UserImportFormat;
+import dev.mspilari.login_app.domains.user.repositories.UserImportRepository;
+import dev.mspilari.login_app.domains.user.repositories.UserImportRepository.NewUser;
+import dev.mspilari.login_app.exceptions.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+
+@ExtendWith(MockitoExtension.class)
+public class UserImportServiceTest {
+
+    private static final String HASH = "{bcrypt}$2a$10$abcdefghijklmnopqrstuuABCDEFGHIJKLMNOPQRSTUVWXYZ01234";
+
+    @Mock
+    private UserImportRepository userImportRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private EmailMembershipFilter emailMembershipFilter;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final List<String> errors = new ArrayList<>();
+
+    private final List<UserImportSummaryDto> progress = new ArrayList<>();
+
+    private final List<NewUser> inserted = new ArrayList<>();
+
+    private UserImportService userImportService;
+
+    private final UserImportListener listener = new UserImportListener() {
+        @Override
+        public void rowFailed(long line, String email, String error) {
+            errors.add(line + ":" + error);
+        }
+
+        @Override
+        public void progress(UserImportSummaryDto summary) {
+            progress.add(summary);
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        userImportService = new UserImportService(userImportRepository, passwordEncoder, emailMembershipFilter,
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(), meterRegistry);
+        ReflectionTestUtils.setField(userImportService, "batchSize", 2);
+        ReflectionTestUtils.setField(userImportService, "threads", 2);
+        ReflectionTestUtils.setField(userImportService, "retryAfterSeconds", 60L);
+    }
+
+    private void acceptInserts() {
+        when(userImportRepository.insertAll(anyList(), eq(Role.CLIENT))).thenAnswer(invocation -> {
+            List<NewUser> users = invocation.getArgument(0);
+            inserted.addAll(users);
+            return users.stream().map(NewUser::id).collect(Collectors.toSet());
+        });
+    }
+
+    private void encodeWithPrefix() {
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> "encoded-" + invocation.getArgument(0));
+    }
+
+    private UserImportSummaryDto run(UserImportFormat format, String... lines) throws IOException {
+        var input = new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+        return userImportService.importUsers(input, format, listener);
+    }
+
+    private double rows(String result) {
+        return meterRegistry.counter("user.import.rows", "result", result).count();
+    }
+
+    @Nested
+    class Formats {
+        @Test
+        void shouldImportNdjsonWithRawAndHashedPasswords() throws IOException {
+            acceptInserts();
+            when(passwordEncoder.encode("12345")).thenReturn("encoded");
+
+            var summary = run(UserImportFormat.NDJSON,
+                    "{\"email\":\"first@email.com\",\"password\":\"12345\"}",
+                    "",
+                    "{\"email\":\" second@email.com \",\"passwordHash\":\"" + HASH + "\"}");
+
+            assertEquals(new UserImportSummaryDto(2, 2, 0, 0), summary);
+            assertEquals(List.of("first@email.com", "second@email.com"),
+                    inserted.stream().map(NewUser::email).toList());
+            assertEquals(List.of("encoded", HASH), inserted.stream().map(NewUser::encodedPassword).toList());
+            verify(passwordEncoder, times(1)).encode(anyString());
+            verify(emailMembershipFilter, times(1)).add("second@email.com");
+            assertEquals(2, rows("imported"));
+        }
+
+        @Test
+        void shouldImportCsvWithQuotedFieldsInAnyColumnOrder() throws IOException {
+            acceptInserts();
+            encodeWithPrefix();
+
+            var summary = run(UserImportFormat.CSV,
+                    "password,email",
+                    "\" pass, \"\"word\"\" \",first@email.com");
+
+            assertEquals(new UserImportSummaryDto(1, 1, 0, 0), summary);
+            assertEquals("encoded- pass, \"word\" ", inserted.get(0).encodedPassword());
+        }
+
+        @Test
+        void shouldRejectCsvWithoutRequiredColumns() {
+            var exception = assertThrows(ResponseStatusException.class,
+                    () -> run(UserImportFormat.CSV, "email,name", "first@email.com,First"));
+
+            assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+            verify(userImportRepository, never()).insertAll(anyList(), any());
+        }
+    }
+
+    @Nested
+    class InvalidRows {
+        @Test
+        void shouldReportInvalidRowsAndImportTheRest() throws IOException {
+            acceptInserts();
+            encodeWithPrefix();
+
+            var summary = run(UserImportFormat.CSV,
+                    "email,password,passwordHash",
+                    "not-an-email,12345,",
+                    "first@email.com,12345," + HASH,
+                    "second@email.com,,$1$unsupported",
+                    "third@email.com,12345",
+                    "\"fourth@email.com,12345,",
+                    "fifth@email.com,12345,");
+
+            assertEquals(new UserImportSummaryDto(6, 1, 0, 5), summary);
+            assertEquals(List.of("2:Invalid email", "3:Exactly one of password or passwordHash is required",
+                    "4:Unsupported password hash", "5:Expected 3 columns", "6:Unterminated quoted field"), errors);
+            assertEquals(5, rows("invalid"));
+        }
+
+        @Test
+        void shouldRejectTruncatedOrMalformedHashes() throws IOException {
+            var summary = run(UserImportFormat.CSV,
+                    "email,passwordHash",
+                    "first@email.com,{bcrypt}x",
+                    "second@email.com," + HASH.substring(0, HASH.length() - 1),
+                    "third@email.com,\"{argon2}$argon2id$v=19$m=16384,t=2\"",
+                    "fourth@email.com,{pbkdf2}abcdef");
+
+            assertEquals(new UserImportSummaryDto(4, 0, 0, 4), summary);
+            assertEquals(List.of("2:Unsupported password hash", "3:Unsupported password hash",
+                    "4:Unsupported password hash", "5:Unsupported password hash"), errors);
+            verify(userImportRepository, never()).insertAll(anyList(), any());
+        }
+
+        @Test
+        void shouldAcceptHashesInEachEncoderFormat() throws IOException {
+            acceptInserts();
+            var argon2 = "{argon2}" + Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8().encode("12345");
+            var pbkdf2 = "{pbkdf2}" + Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8().encode("12345");
+
+            var summary = run(UserImportFormat.CSV,
+                    "email,passwordHash",
+                    "first@email.com," + HASH,
+                    "second@email.com," + HASH.substring("{bcrypt}".length()),
+                    "third@email.com,\"" + argon2 + "\"",
+                    "fourth@email.com," + pbkdf2);
+
+            assertEquals(new UserImportSummaryDto(4, 4, 0, 0), summary);
+        }
+
+        @Test
+        void shouldReportMalformedJson() throws IOException {
+            var summary = run(UserImportFormat.NDJSON, "{\"email\":");
+
+            assertEquals(new UserImportSummaryDto(1, 0, 0, 1), summary);
+            assertEquals(List.of("1:Malformed JSON"), errors);
+        }
+
+        @Test
+        void shouldReportPasswordsTheEncoderRejects() throws IOException {
+            acceptInserts();
+            when(passwordEncoder.encode("12345")).thenReturn("encoded");
+            when(passwordEncoder.encode("too-long")).thenThrow(new IllegalArgumentException("password too long"));
+
+            var summary = run(UserImportFormat.NDJSON,
+                    "{\"email\":\"first@email.com\",\"password\":\"too-long\"}",
+                    "{\"email\":\"second@email.com\",\"password\":\"12345\"}");
+
+            assertEquals(new UserImportSummaryDto(2, 1, 0, 1), summary);
+            assertEquals(List.of("1:password too long"), errors);
+            assertEquals("second@email.com", inserted.get(0).email());
+        }
+    }
+
+    @Nested
+    class Duplicates {
+        @Test
+        void shouldSkipExistingEmailsWithoutHashing() throws IOException {
+            acceptInserts();
+            encodeWithPrefix();
+            when(userImportRepository.findExistingEmails(List.of("first@email.com", "second@email.com")))
+                    .thenReturn(Set.of("first@email.com"));
+
+            var summary = run(UserImportFormat.CSV,
+                    "email,password",
+                    "First@Email.com,12345",
+                    "second@email.com,67890");
+
+            assertEquals(new UserImportSummaryDto(2, 1, 1, 0), summary);
+            assertEquals(List.of("2:Email already exists"), errors);
+            verify(passwordEncoder, never()).encode("12345");
+            assertEquals(1, rows("duplicate"));
+        }
+
+        @Test
+        void shouldReportDuplicatesWithinTheFileAndInsertConflicts() throws IOException {
+            encodeWithPrefix();
+            when(userImportRepository.insertAll(anyList(), eq(Role.CLIENT))).thenReturn(Set.of());
+
+            var summary = run(UserImportFormat.CSV,
+                    "email,password",
+                    "first@email.com,12345",
+                    "FIRST@email.com,12345");
+
+            assertEquals(new UserImportSummaryDto(2, 0, 2, 0), summary);
+            assertEquals(List.of("3:Email already exists", "2:Email already exists"), errors);
+            verify(emailMembershipFilter, never()).add(anyString());
+        }
+    }
+
+    @Nested
+    class Batching {
+        @Test
+        void shouldWriteInBatchesAndReportProgressAfterEach() throws IOException {
+            acceptInserts();
+            encodeWithPrefix();
+
+            run(UserImportFormat.CSV,
+                    "email,password",
+                    "a@email.com,1", "b@email.com,2", "c@email.com,3", "d@email.com,4", "e@email.com,5");
+
+            verify(userImportRepository, times(3)).insertAll(anyList(), eq(Role.CLIENT));
+            assertEquals(List.of(2L, 4L, 5L), progress.stream().map(UserImportSummaryDto::imported).toList());
+        }
+
+        @Test
+        void shouldRejectConcurrentImports() throws IOException {
+            acceptInserts();
+            encodeWithPrefix();
+            var concurrent = new ArrayList<Throwable>();
+
+            var second = new UserImportListener() {
+                @Override
+                public void rowFailed(long line, String email, String error) {
+                }
+
+                @Override
+                public void progress(UserImportSummaryDto summary) {
+                    try {
+                        CompletableFuture.runAsync(() -> {
+                            try {
+                                run(UserImportFormat.CSV, "email,password");
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        }).join();
+                    } catch (CompletionException e) {
+                        concurrent.add(e.getCause());
+                    }
+                }
+            };
+
+            userImportService.importUsers(new ByteArrayInputStream(
+                    "email,password\na@email.com,1".getBytes(StandardCharsets.UTF_8)), UserImportFormat.CSV, second);
+
+            assertEquals(1, concurrent.size());
+            assertInstanceOf(ServiceBusyException.class, concurrent.get(0));
+        }
+    }
+}
@@ -4,38 +4,55 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import java.lang.reflect.Field;
-import java.time.Instant;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BiConsumer;
 
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.server.ResponseStatusException;
 
 import dev.mspilari.login_app.domains.email.services.EmailService;
+import dev.mspilari.login_app.domains.lockout.services.LoginLockoutService;
+import dev.mspilari.login_app.domains.token.dto.RotatedRefreshTokenDto;
+import dev.mspilari.login_app.domains.token.services.PasswordResetTokenService;
+import dev.mspilari.login_app.domains.token.services.RefreshTokenService;
+import dev.mspilari.login_app.domains.user.dto.UserCredentialsDto;
 import dev.mspilari.login_app.domains.user.entity.UserEntity;
 import dev.mspilari.login_app.domains.user.enums.Role;
+import dev.mspilari.login_app.domains.user.repositories.NoOpCredentialCache;
 import dev.mspilari.login_app.domains.user.repositories.UserRepository;
+import dev.mspilari.login_app.exceptions.OperationRejectedException;
+import dev.mspilari.login_app.exceptions.TooManyAttemptsException;
 import dev.mspilari.login_app.utils.JwtActions;
+import dev.mspilari.login_app.utils.PasswordHasher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @ExtendWith(MockitoExtension.class)
 public class UserServiceTest {
 
+    private long operations(String operation, String outcome) {
+        var timer = meterRegistry.find("user.operations").tag("operation", operation).tag("outcome", outcome).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
     @Mock
     private UserRepository userRepository;
 
     @Mock
-    private BCryptPasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
 
     @Mock
     private JwtActions jwtActions;
@@ -43,6 +60,24 @@ public class UserServiceTest {
     @Mock
     private EmailService emailService;
 
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private LoginLockoutService loginLockoutService;
+
+    @Mock
+    private EmailMembershipFilter emailMembershipFilter;
+
+    @Mock
+    private PasswordResetTokenService passwordResetTokenService;
+
+    @Spy
+    private NoOpCredentialCache credentialCache = new NoOpCredentialCache();
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private UserService userService;
 
@@ -54,22 +89,26 @@ public class UserServiceTest {
             var rawPassword = "12345";
             var encodedPassword = "12345_encoded";
 
-            when(passwordEncoder.encode(rawPassword)).thenReturn(encodedPassword);
+            when(passwordHasher.encode(rawPassword)).thenReturn(encodedPassword);
+            when(userRepository.insertIfAbsent(any(UUID.class), eq(email), eq(encodedPassword),
+                    eq(Role.CLIENT.name()))).thenReturn(1);
 
             userService.createUser(email, rawPassword);
 
-            verify(userRepository, times(1)).save(argThat(user -> user.getEmail().equals(email) &&
-                    user.getPassword().equals(encodedPassword) &&
-                    user.getRole() == Role.CLIENT));
+            verify(userRepository, times(1)).insertIfAbsent(any(UUID.class), eq(email), eq(encodedPassword),
+                    eq(Role.CLIENT.name()));
+            verify(userRepository, times(0)).save(any(UserEntity.class));
+            verify(emailMembershipFilter, times(1)).add(email);
         }
 
         @Test
         void shouldNotCreateUserWhenEmailAlreadyExists() {
             var email = "test@email.com";
             var rawPassword = "12345";
-            var existingUser = new UserEntity(email, "existing_password", Role.CLIENT);
 
-            when(userRepository.findByEmail(email)).thenReturn(Optional.of(existingUser));
+            when(passwordHasher.encode(rawPassword)).thenReturn("12345_encoded");
+            when(userRepository.insertIfAbsent(any(UUID.class), eq(email), eq("12345_encoded"),
+                    eq(Role.CLIENT.name()))).thenReturn(0);
 
             ResponseStatusException exception = assertThrows(ResponseStatusException.class,
                     () -> userService.createUser(email, rawPassword));
@@ -78,27 +117,54 @@ public class UserServiceTest {
 
             assertEquals("Email already exists !", exception.getReason());
 
-            verify(userRepository, times(0)).save(any(UserEntity.class));
+            verify(userRepository, times(0)).findByEmail(email);
         }
     }
 
     @Nested
     class UserLogin {
+        private static final String CLIENT_IP = "203.0.113.7";
+
         @Test
         void shouldBeAbleToLoginSuccessfully() {
             var email = "test@email.com";
             var rawPassword = "12345";
-            var userEntity = new UserEntity(email, rawPassword, Role.CLIENT);
+            var credentials = new UserCredentialsDto(UUID.randomUUID(), email, rawPassword, Role.CLIENT);
 
-            when(userRepository.findByEmail(email)).thenReturn(Optional.of(userEntity));
+            when(userRepository.findCredentialsByEmail(email)).thenReturn(Optional.of(credentials));
 
-            when(passwordEncoder.matches(rawPassword, rawPassword)).thenReturn(true);
+            when(passwordHasher.matches(rawPassword, rawPassword)).thenReturn(true);
 
             when(jwtActions.jwtCreate(email, Role.CLIENT.toString())).thenReturn("Fake Token");
 
-            var result = userService.login(email, rawPassword);
+            when(refreshTokenService.issue(credentials.id())).thenReturn("Fake Refresh Token");
+
+            var result = userService.login(email, rawPassword, CLIENT_IP);
 
-            assertEquals("Fake Token", result);
+            assertEquals("Fake Token", result.token());
+            assertEquals("Fake Refresh Token", result.refreshToken());
+            verify(loginLockoutService, times(1)).recordSuccess(email, CLIENT_IP);
+            verify(userRepository, times(0)).updatePassword(any(UUID.class), any(String.class), any(String.class));
+            assertEquals(1, operations("login", "success"));
+            assertEquals(1, meterRegistry.timer("jwt.sign").count());
+        }
+
+        @Test
+        void shouldRehashOutdatedPasswordOnLogin() {
+            var email = "test@email.com";
+            var rawPassword = "12345";
+            var credentials = new UserCredentialsDto(UUID.randomUUID(), email, "$2a$10$legacy", Role.CLIENT);
+
+            when(userRepository.findCredentialsByEmail(email)).thenReturn(Optional.of(credentials));
+            when(passwordHasher.matches(rawPassword, "$2a$10$legacy")).thenReturn(true);
+            when(passwordHasher.upgradeEncoding("$2a$10$legacy")).thenReturn(true);
+            when(passwordHasher.encode(rawPassword)).thenReturn("{bcrypt}$2a$12$upgraded");
+
+            userService.login(email, rawPassword, CLIENT_IP);
+
+            verify(userRepository, times(1)).updatePassword(credentials.id(), "$2a$10$legacy",
+                    "{bcrypt}$2a$12$upgraded");
+            verify(credentialCache, times(1)).invalidate(email);
         }
 
         @Test
@@ -106,10 +172,10 @@ public class UserServiceTest {
             var email = "test@email.com";
             var rawPassword = "12345";
 
-            when(userRepository.findByEmail(email)).thenReturn(Optional.empty());
+            when(userRepository.findCredentialsByEmail(email)).thenReturn(Optional.empty());
 
             ResponseStatusException exception = assertThrows(ResponseStatusException.class,
-                    () -> userService.login(email, rawPassword));
+                    () -> userService.login(email, rawPassword, CLIENT_IP));
 
             assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
             assertEquals("Invalid login credentials", exception.getReason());
@@ -120,42 +186,93 @@ public class UserServiceTest {
         void shouldNotBeAbleToLoginDueToPassword() {
             var email = "test@email.com";
             var rawPassword = "12345";
-            var userEntity = new UserEntity(email, rawPassword, Role.CLIENT);
+            var credentials = new UserCredentialsDto(UUID.randomUUID(), email, rawPassword, Role.CLIENT);
 
-            when(userRepository.findByEmail(email)).thenReturn(Optional.of(userEntity));
-            when(passwordEncoder.matches(rawPassword, rawPassword)).thenReturn(false);
+            when(userRepository.findCredentialsByEmail(email)).thenReturn(Optional.of(credentials));
+            when(passwordHasher.matches(rawPassword, rawPassword)).thenReturn(false);
 
             ResponseStatusException exception = assertThrows(ResponseStatusException.class,
-                    () -> userService.login(email, rawPassword));
+                    () -> userService.login(email, rawPassword, CLIENT_IP));
 
             assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
             assertEquals("Invalid login credentials", exception.getReason());
 
+            verify(refreshTokenService, times(0)).issue(any(UUID.class));
+            verify(loginLockoutService, times(1)).recordFailure(email, CLIENT_IP);
+            assertEquals(1, operations("login", "bad_credentials"));
+        }
+
+        @Test
+        void shouldNotCheckPasswordWhileLockedOut() {
+            var email = "test@email.com";
+
+            doThrow(new TooManyAttemptsException("Too many failed login attempts, try again later", 60))
+                    .when(loginLockoutService).checkNotLocked(email, CLIENT_IP);
+
+            ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                    () -> userService.login(email, "12345", CLIENT_IP));
+
+            assertEquals(HttpStatus.TOO_MANY_REQUESTS, exception.getStatusCode());
+            verify(userRepository, times(0)).findCredentialsByEmail(email);
+            verify(passwordHasher, times(0)).matches(any(String.class), any(String.class));
+            assertEquals(1, operations("login", "locked"));
         }
     }
 
     @Nested
-    class RedeemPassword {
+    class Refresh {
         @Test
-        void shouldBeAbleToRedeemSuccessfully() throws Exception {
+        void shouldIssueNewTokensWithoutCheckingPassword() {
             var email = "test@email.com";
-            var rawPassword = "12345";
-            var userEntity = new UserEntity(email, rawPassword, Role.CLIENT);
 
-            when(userRepository.findByEmail(email)).thenReturn(Optional.of(userEntity));
+            when(refreshTokenService.rotate("Old Refresh Token"))
+                    .thenReturn(new RotatedRefreshTokenDto(email, Role.CLIENT, "New Refresh Token"));
+            when(jwtActions.jwtCreate(email, Role.CLIENT.toString())).thenReturn("Fake Token");
+
+            var result = userService.refresh("Old Refresh Token");
+
+            assertEquals("Fake Token", result.token());
+            assertEquals("New Refresh Token", result.refreshToken());
+            verify(passwordHasher, times(0)).matches(any(String.class), any(String.class));
+        }
+
+        @Test
+        void shouldNotRefreshWithInvalidToken() {
+            when(refreshTokenService.rotate("Invalid Refresh Token"))
+                    .thenThrow(new OperationRejectedException("invalid_token", "Invalid refresh token"));
+
+            ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                    () -> userService.refresh("Invalid Refresh Token"));
+
+            assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+            assertEquals("Invalid refresh token", exception.getReason());
+            assertEquals(1, operations("refresh", "invalid_token"));
+        }
+    }
+
+    @Nested
+    class RedeemPassword {
+        @Test
+        void shouldBeAbleToRedeemSuccessfully() {
+            var email = "test@email.com";
+            var userId = UUID.randomUUID();
 
-            Field tokenExpirationField = UserService.class.getDeclaredField("tokenExpirationSeconds");
-            tokenExpirationField.setAccessible(true);
-            tokenExpirationField.set(userService, 300L);
+            when(emailMembershipFilter.mightContain(email)).thenReturn(true);
+            when(userRepository.findIdByEmail(email)).thenReturn(Optional.of(userId));
+            when(passwordResetTokenService.issue(eq(userId), any())).thenAnswer(invocation -> {
+                invocation.<BiConsumer<String, Runnable>>getArgument(1).accept("reset-token", () -> {
+                });
+                return true;
+            });
 
             userService.redeemPassword(email);
 
-            verify(userRepository, times(1)).save(argThat(user -> user.getResetToken() != null &&
-                    user.getResetTokenExpiration().isAfter(Instant.now())));
+            verify(userRepository, times(0)).save(any(UserEntity.class));
             verify(emailService, times(1)).sendEmail(
                     argThat(emailArg -> emailArg.equals(email)),
                     any(String.class),
-                    any(String.class));
+                    argThat(body -> body.contains("reset-token")),
+                    any(Runnable.class));
 
         }
 
@@ -163,14 +280,29 @@ public class UserServiceTest {
         void shouldNotBeAbleToRedeemDueToEmail() {
             var email = "test@email.com";
 
-            when(userRepository.findByEmail(email)).thenReturn(Optional.empty());
+            when(emailMembershipFilter.mightContain(email)).thenReturn(true);
+            when(userRepository.findIdByEmail(email)).thenReturn(Optional.empty());
 
             ResponseStatusException exception = assertThrows(ResponseStatusException.class,
                     () -> userService.redeemPassword(email));
 
             assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
             assertEquals("Invalid email", exception.getReason());
+            verify(emailMembershipFilter, times(1)).recordFalsePositive();
+        }
+
+        @Test
+        void shouldNotQueryDatabaseForDefinitelyUnknownEmail() {
+            var email = "missing@email.com";
+
+            when(emailMembershipFilter.mightContain(email)).thenReturn(false);
 
+            ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                    () -> userService.redeemPassword(email));
+
+            assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+            assertEquals("Invalid email", exception.getReason());
+            verify(userRepository, times(0)).findIdByEmail(email);
         }
     }
 
@@ -180,25 +312,24 @@ public class UserServiceTest {
         void shouldNotBeAbleToResetDueToToken() {
             var token = "fake reset token";
 
-            when(userRepository.findByResetToken(token)).thenReturn(Optional.empty());
+            doThrow(new OperationRejectedException("invalid_token", "User not found"))
+                    .when(passwordResetTokenService).checkValid(token);
 
             ResponseStatusException exception = assertThrows(ResponseStatusException.class,
                     () -> userService.resetPassword(token, "password"));
 
             assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
             assertEquals("User not found", exception.getReason());
+            verify(passwordHasher, times(0)).encode(any(String.class));
 
         }
 
         @Test
         void shouldNotBeAbleToResetDueToTokenExpired() {
             var token = "fake token";
-            var user = new UserEntity("test@email.com", "12345", Role.CLIENT);
-
-            when(userRepository.findByResetToken(token)).thenReturn(Optional.of(user));
 
-            var expiredTime = Instant.now().minusSeconds(3600);
-            user.withResetToken(token, expiredTime);
+            doThrow(new OperationRejectedException("expired_token", "Token expired"))
+                    .when(passwordResetTokenService).checkValid(token);
 
             ResponseStatusException exception = assertThrows(ResponseStatusException.class,
                     () -> userService.resetPassword(token, "12345"));
@@ -206,27 +337,22 @@ public class UserServiceTest {
             assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
             assertEquals("Token expired", exception.getReason());
 
-            verify(userRepository, times(0)).save(any(UserEntity.class));
+            verify(passwordResetTokenService, times(0)).consume(any(String.class), any(String.class));
+            assertEquals(1, operations("reset_password", "expired_token"));
 
         }
 
         @Test
         void shouldBeAbleToResetPassword() {
             var token = "fake token";
-            var user = new UserEntity("test@email.com", "12345", Role.CLIENT);
-
-            when(userRepository.findByResetToken(token)).thenReturn(Optional.of(user));
-            when(passwordEncoder.encode("newPassword")).thenReturn("newPassword");
 
-            var expiredTime = Instant.now().plusSeconds(3600);
-            user.withResetToken(token, expiredTime);
+            when(passwordHasher.encode("newPassword")).thenReturn("newPassword_encoded");
+            when(passwordResetTokenService.consume(token, "newPassword_encoded")).thenReturn("test@email.com");
 
             userService.resetPassword(token, "newPassword");
 
-            verify(userRepository, times(1)).save(argThat(savedUser -> savedUser.getPassword() != null &&
-                    !savedUser.getPassword().equals("12345") &&
-                    savedUser.getResetToken() == null &&
-                    savedUser.getResetTokenExpiration() == null));
+            verify(passwordResetTokenService, times(1)).consume(token, "newPassword_encoded");
+            verify(credentialCache, times(1)).invalidate("test@email.com");
 
         }
     }
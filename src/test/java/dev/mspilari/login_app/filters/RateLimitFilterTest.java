@@ -0,0 +1,173 @@
+package dev.mspilari.login_app.filters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.mspilari.login_app.utils.TokenBucketLimiter;
+import dev.mspilari.login_app.utils.TokenBucketLimiter.Overflow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class RateLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private RateLimitFilter filter(int ipCapacity, int emailCapacity) {
+        return filter(ipCapacity, emailCapacity, 100);
+    }
+
+    private RateLimitFilter filter(int ipCapacity, int emailCapacity, int maxBuckets) {
+        return new RateLimitFilter(
+                new TokenBucketLimiter("ip", ipCapacity, Duration.ofSeconds(10), maxBuckets, Overflow.EVICT,
+                        meterRegistry),
+                new TokenBucketLimiter("email", emailCapacity, Duration.ofSeconds(60), maxBuckets, Overflow.ALLOW,
+                        meterRegistry),
+                256, new ObjectMapper());
+    }
+
+    private MockHttpServletRequest request(String path, String ip, String email) {
+        var request = new MockHttpServletRequest("POST", path);
+        request.setRemoteAddr(ip);
+        request.setContentType("application/json");
+        request.setContent(("{\"email\":\"" + email + "\",\"password\":\"12345\"}").getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private MockHttpServletResponse send(RateLimitFilter filter, MockHttpServletRequest request, MockFilterChain chain)
+            throws Exception {
+        var response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    @Nested
+    class LimitedEndpoints {
+        @Test
+        void shouldPassBodyThroughToTheController() throws Exception {
+            var chain = new MockFilterChain();
+
+            var response = send(filter(5, 5), request("/user/login", "10.0.0.1", "test@email.com"), chain);
+
+            assertEquals(HttpStatus.OK.value(), response.getStatus());
+            var forwarded = chain.getRequest().getInputStream().readAllBytes();
+            assertEquals("{\"email\":\"test@email.com\",\"password\":\"12345\"}",
+                    new String(forwarded, StandardCharsets.UTF_8));
+        }
+
+        @Test
+        void shouldLimitByClientIp() throws Exception {
+            var filter = filter(1, 5);
+
+            send(filter, request("/user/login", "10.0.0.1", "first@email.com"), new MockFilterChain());
+            var chain = new MockFilterChain();
+            var response = send(filter, request("/user/login", "10.0.0.1", "second@email.com"), chain);
+
+            assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), response.getStatus());
+            assertEquals("10", response.getHeader(HttpHeaders.RETRY_AFTER));
+            assertNull(chain.getRequest());
+        }
+
+        @Test
+        void shouldLimitByNormalisedEmailAcrossIps() throws Exception {
+            var filter = filter(5, 1);
+
+            send(filter, request("/user/login", "10.0.0.1", "Test@Email.com"), new MockFilterChain());
+            var chain = new MockFilterChain();
+            var response = send(filter, request("/user/redeem-password", "10.0.0.2", " test@email.com "), chain);
+
+            assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), response.getStatus());
+            assertEquals("60", response.getHeader(HttpHeaders.RETRY_AFTER));
+            assertNull(chain.getRequest());
+        }
+    }
+
+    @Nested
+    class Bounds {
+        @Test
+        void shouldRejectDeclaredBodyAboveTheCap() throws Exception {
+            var request = request("/user/login", "10.0.0.1", "x".repeat(300));
+            var chain = new MockFilterChain();
+
+            var response = send(filter(5, 5), request, chain);
+
+            assertEquals(HttpStatus.PAYLOAD_TOO_LARGE.value(), response.getStatus());
+            assertNull(chain.getRequest());
+        }
+
+        @Test
+        void shouldStopReadingChunkedBodyAtTheCap() throws Exception {
+            var content = new byte[1 << 20];
+            var request = new MockHttpServletRequest("POST", "/user/login") {
+                @Override
+                public long getContentLengthLong() {
+                    return -1;
+                }
+
+                @Override
+                public int getContentLength() {
+                    return -1;
+                }
+            };
+            request.setContent(content);
+            var chain = new MockFilterChain();
+
+            var response = send(filter(5, 5), request, chain);
+
+            assertEquals(HttpStatus.PAYLOAD_TOO_LARGE.value(), response.getStatus());
+            assertNull(chain.getRequest());
+            assertEquals(content.length - 257, request.getInputStream().available());
+        }
+
+        @Test
+        void shouldFallBackToTheIpLimitWhenEmailBucketsAreFull() throws Exception {
+            var filter = filter(5, 1, 2);
+
+            send(filter, request("/user/login", "10.0.0.1", "first@email.com"), new MockFilterChain());
+            send(filter, request("/user/login", "10.0.0.1", "second@email.com"), new MockFilterChain());
+            var chain = new MockFilterChain();
+            var response = send(filter, request("/user/login", "10.0.0.2", "third@email.com"), chain);
+
+            assertEquals(HttpStatus.OK.value(), response.getStatus());
+            assertEquals(1.0, meterRegistry.counter("rate.limiter.overflow", "limiter", "email").count());
+        }
+
+        @Test
+        void shouldNotRejectNewIpsWhenIpBucketsAreFull() throws Exception {
+            var filter = filter(1, 5, 2);
+
+            send(filter, request("/user/login", "10.0.0.1", "first@email.com"), new MockFilterChain());
+            send(filter, request("/user/login", "10.0.0.2", "second@email.com"), new MockFilterChain());
+            var chain = new MockFilterChain();
+            var response = send(filter, request("/user/login", "10.0.0.3", "third@email.com"), chain);
+
+            assertEquals(HttpStatus.OK.value(), response.getStatus());
+            assertEquals(1.0, meterRegistry.counter("rate.limiter.overflow", "limiter", "ip").count());
+        }
+    }
+
+    @Nested
+    class OtherEndpoints {
+        @Test
+        void shouldNotLimitOtherEndpoints() throws Exception {
+            var filter = filter(1, 1);
+
+            send(filter, request("/user/reset-password", "10.0.0.1", "test@email.com"), new MockFilterChain());
+            var response = send(filter, request("/user/reset-password", "10.0.0.1", "test@email.com"),
+                    new MockFilterChain());
+
+            assertEquals(HttpStatus.OK.value(), response.getStatus());
+        }
+    }
+}
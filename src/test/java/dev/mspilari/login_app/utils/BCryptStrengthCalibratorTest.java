@@ -0,0 +1,28 @@
+package dev.mspilari.login_app.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+public class BCryptStrengthCalibratorTest {
+
+    private final BCryptStrengthCalibrator calibrator = new BCryptStrengthCalibrator(
+            strength -> Duration.ofMillis(1L << (strength - 4)));
+
+    @Test
+    void shouldPickTheStrongestStrengthWithinBudget() {
+        assertEquals(11, calibrator.calibrate(Duration.ofMillis(150), 4, 16));
+    }
+
+    @Test
+    void shouldNotGoBelowMinimumStrength() {
+        assertEquals(10, calibrator.calibrate(Duration.ofMillis(1), 10, 16));
+    }
+
+    @Test
+    void shouldNotGoAboveMaximumStrength() {
+        assertEquals(12, calibrator.calibrate(Duration.ofSeconds(10), 4, 12));
+    }
+}
@@ -0,0 +1,86 @@
+package dev.mspilari.login_app.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import dev.mspilari.login_app.utils.BatchSweeper.BatchDelete;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class BatchSweeperTest {
+
+    private final BatchDelete batchDelete = mock(BatchDelete.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private BatchSweeper newSweeper(String propertyPrefix, String metricPrefix, int maxBatches,
+            DataSource dataSource) {
+        var environment = new MockEnvironment()
+                .withProperty(propertyPrefix + ".batch-size", "3")
+                .withProperty(propertyPrefix + ".max-batches", String.valueOf(maxBatches))
+                .withProperty(propertyPrefix + ".pause-millis", "0");
+        when(batchDelete.delete(any(), eq(3))).thenReturn(3, 3, 2);
+
+        return new BatchSweeper(propertyPrefix, metricPrefix, "rows", batchDelete, Duration.ZERO, environment,
+                dataSource, meterRegistry);
+    }
+
+    @ParameterizedTest
+    @CsvSource({ "reset-token.sweeper, reset.tokens", "refresh-token.sweeper, refresh.tokens" })
+    void shouldDeleteBatchesUntilOneIsShort(String propertyPrefix, String metricPrefix) {
+        newSweeper(propertyPrefix, metricPrefix, 100, mock(DataSource.class)).sweep();
+
+        verify(batchDelete, times(3)).delete(any(), eq(3));
+        assertEquals(8.0, meterRegistry.counter(metricPrefix + ".purged").count());
+        assertEquals(1, meterRegistry.timer(metricPrefix + ".sweep").count());
+    }
+
+    @ParameterizedTest
+    @CsvSource({ "reset-token.sweeper, reset.tokens", "refresh-token.sweeper, refresh.tokens" })
+    void shouldStopAfterMaxBatches(String propertyPrefix, String metricPrefix) {
+        newSweeper(propertyPrefix, metricPrefix, 2, mock(DataSource.class)).sweep();
+
+        verify(batchDelete, times(2)).delete(any(), eq(3));
+        assertEquals(6.0, meterRegistry.counter(metricPrefix + ".purged").count());
+    }
+
+    @ParameterizedTest
+    @CsvSource({ "reset-token.sweeper, reset.tokens", "refresh-token.sweeper, refresh.tokens" })
+    void shouldDeferWhileRequestsWaitForConnections(String propertyPrefix, String metricPrefix) {
+        var dataSource = mock(HikariDataSource.class);
+        var pool = mock(HikariPoolMXBean.class);
+        when(dataSource.getHikariPoolMXBean()).thenReturn(pool);
+        when(pool.getThreadsAwaitingConnection()).thenReturn(1);
+
+        newSweeper(propertyPrefix, metricPrefix, 100, dataSource).sweep();
+
+        verify(batchDelete, times(0)).delete(any(), eq(3));
+        assertEquals(1.0, meterRegistry.counter(metricPrefix + ".sweep.deferred").count());
+    }
+
+    @ParameterizedTest
+    @CsvSource({ "reset-token.sweeper, reset.tokens", "refresh-token.sweeper, refresh.tokens" })
+    void shouldDoNothingWhenDisabled(String propertyPrefix, String metricPrefix) {
+        var environment = new MockEnvironment().withProperty(propertyPrefix + ".enabled", "false");
+
+        new BatchSweeper(propertyPrefix, metricPrefix, "rows", batchDelete, Duration.ZERO, environment,
+                mock(DataSource.class), meterRegistry).sweep();
+
+        verify(batchDelete, times(0)).delete(any(), any(Integer.class));
+    }
+}
@@ -0,0 +1,147 @@
+package dev.mspilari.login_app.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class CachingJwtDecoderTest {
+
+    private final JwtDecoder delegate = mock(JwtDecoder.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+    private Jwt jwt(String token, Instant expiresAt) {
+        return Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .subject("test@email.com")
+                .issuedAt(now.minusSeconds(10))
+                .expiresAt(expiresAt)
+                .build();
+    }
+
+    private CachingJwtDecoder decoder(int maxSize, Instant at) {
+        return new CachingJwtDecoder(delegate, maxSize, meterRegistry, Clock.fixed(at, ZoneOffset.UTC));
+    }
+
+    @Test
+    void shouldVerifyRepeatedTokenOnlyOnce() {
+        var decoder = decoder(10, now);
+        var jwt = jwt("token", now.plusSeconds(300));
+        when(delegate.decode("token")).thenReturn(jwt);
+
+        assertSame(jwt, decoder.decode("token"));
+        assertSame(jwt, decoder.decode("token"));
+
+        verify(delegate, times(1)).decode("token");
+        assertEquals(1.0, meterRegistry.get("jwt.decoder.cache").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void shouldNotServeExpiredToken() {
+        var clock = new MutableClock(now);
+        var decoder = new CachingJwtDecoder(delegate, 10, meterRegistry, clock);
+        when(delegate.decode("token"))
+                .thenReturn(jwt("token", now.plusSeconds(300)))
+                .thenThrow(new BadJwtException("expired"));
+
+        decoder.decode("token");
+        clock.instant = now.plusSeconds(300);
+
+        assertThrows(BadJwtException.class, () -> decoder.decode("token"));
+        assertEquals(0, decoder.size());
+    }
+
+    @Test
+    void shouldNotCacheRejectedTokens() {
+        var decoder = decoder(10, now);
+        when(delegate.decode("bad")).thenThrow(new BadJwtException("invalid"));
+
+        assertThrows(BadJwtException.class, () -> decoder.decode("bad"));
+        assertThrows(BadJwtException.class, () -> decoder.decode("bad"));
+
+        verify(delegate, times(2)).decode("bad");
+        assertEquals(0, decoder.size());
+    }
+
+    @Test
+    void shouldStayWithinMaxSize() {
+        var decoder = decoder(3, now);
+
+        for (int i = 0; i < 10; i++) {
+            var token = "token-" + i;
+            when(delegate.decode(token)).thenReturn(jwt(token, now.plusSeconds(300)));
+            decoder.decode(token);
+        }
+
+        assertEquals(3, decoder.size());
+    }
+
+    @Test
+    void shouldEvictSoonestExpiringTokensFirst() {
+        var decoder = decoder(2, now);
+        when(delegate.decode("short")).thenReturn(jwt("short", now.plusSeconds(100)));
+        when(delegate.decode("long")).thenReturn(jwt("long", now.plusSeconds(300)));
+        when(delegate.decode("medium")).thenReturn(jwt("medium", now.plusSeconds(200)));
+
+        decoder.decode("long");
+        decoder.decode("short");
+        decoder.decode("medium");
+        decoder.decode("long");
+        decoder.decode("medium");
+        decoder.decode("short");
+
+        verify(delegate, times(1)).decode("long");
+        verify(delegate, times(1)).decode("medium");
+        verify(delegate, times(2)).decode("short");
+    }
+
+    @Test
+    void shouldStayWithinMaxSizeUnderConcurrentMisses() throws Exception {
+        var decoder = decoder(8, now);
+        when(delegate.decode(anyString())).thenAnswer(invocation -> {
+            String token = invocation.getArgument(0);
+            return jwt(token, now.plusSeconds(100 + Math.floorMod(token.hashCode(), 200)));
+        });
+
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            var tasks = new ArrayList<Callable<Jwt>>();
+            for (int i = 0; i < 2000; i++) {
+                var token = "token-" + (i % 300);
+                tasks.add(() -> decoder.decode(token));
+            }
+            for (var result : executor.invokeAll(tasks)) {
+                result.get();
+            }
+        }
+
+        assertTrue(decoder.size() <= 8);
+
+        for (int i = 0; i < 20; i++) {
+            decoder.decode("after-" + i);
+        }
+
+        assertEquals(8, decoder.size());
+    }
+}
@@ -0,0 +1,87 @@
+package dev.mspilari.login_app.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ConnectionHoldMetricsTrackerFactoryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ConnectionHoldMetricsTrackerFactory factory = new ConnectionHoldMetricsTrackerFactory(
+            () -> meterRegistry);
+
+    private static PoolStats poolStats(int active, int pending, int max) {
+        return new PoolStats(0) {
+            @Override
+            protected void update() {
+                this.activeConnections = active;
+                this.pendingThreads = pending;
+                this.maxConnections = max;
+            }
+        };
+    }
+
+    private double holdCount(String endpoint) {
+        var timer = meterRegistry.find("db.connection.hold").tag("endpoint", endpoint).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Nested
+    class ConnectionHold {
+        @Test
+        void shouldTagHoldTimeWithTheCurrentEndpoint() {
+            var request = new MockHttpServletRequest("POST", "/user/login");
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/user/login");
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+            factory.create("pool", poolStats(0, 0, 10)).recordConnectionUsageMillis(25);
+
+            assertEquals(1, holdCount("/user/login"));
+            assertEquals(25.0, meterRegistry.find("db.connection.hold").timer()
+                    .totalTime(TimeUnit.MILLISECONDS));
+        }
+
+        @Test
+        void shouldTagBackgroundWorkWithoutARequest() {
+            factory.create("pool", poolStats(0, 0, 10)).recordConnectionUsageMillis(5);
+
+            assertEquals(1, holdCount("none"));
+        }
+
+        @Test
+        void shouldKeepHikariPoolMetrics() {
+            factory.create("pool", poolStats(0, 0, 10)).recordConnectionUsageMillis(5);
+
+            assertNotNull(meterRegistry.find("hikaricp.connections.usage").timer());
+        }
+    }
+
+    @Nested
+    class Saturation {
+        @Test
+        void shouldCountWaitingThreadsAgainstThePoolSize() {
+            factory.create("pool", poolStats(10, 5, 10));
+
+            assertEquals(1.5, meterRegistry.get("hikaricp.connections.saturation").gauge().value());
+        }
+    }
+}
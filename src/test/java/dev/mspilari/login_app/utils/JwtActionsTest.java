@@ -0,0 +1,103 @@
+package dev.mspilari.login_app.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.OctetKeyPairGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+
+import dev.mspilari.login_app.configs.JwtConfig;
+
+public class JwtActionsTest {
+
+    private JwtActions jwtActions;
+
+    private JwtDecoder jwtDecoder;
+
+    private JwtConfig jwtConfig(String algorithm) throws Exception {
+        var jwtConfig = new JwtConfig();
+        ReflectionTestUtils.setField(jwtConfig, "algorithm", algorithm);
+
+        if ("RS256".equals(algorithm)) {
+            var rsaKey = new RSAKeyGenerator(2048).generate();
+            ReflectionTestUtils.setField(jwtConfig, "publicKey", rsaKey.toRSAPublicKey());
+            ReflectionTestUtils.setField(jwtConfig, "privateKey", rsaKey.toRSAPrivateKey());
+            return jwtConfig;
+        }
+
+        JWK jwk = "ES256".equals(algorithm)
+                ? new ECKeyGenerator(Curve.P_256).generate()
+                : new OctetKeyPairGenerator(Curve.Ed25519).generate();
+        ReflectionTestUtils.setField(jwtConfig, "jwk",
+                new ByteArrayResource(jwk.toJSONString().getBytes(StandardCharsets.UTF_8)));
+        return jwtConfig;
+    }
+
+    private void setUp(String algorithm) throws Exception {
+        var keyRing = new JwtKeyRing(jwtConfig(algorithm).jwtKeyMaterial(), false, Duration.ofDays(1),
+                Duration.ofMinutes(5), Duration.ofMinutes(6), Clock.systemUTC());
+
+        jwtActions = new JwtActions(keyRing);
+        ReflectionTestUtils.setField(jwtActions, "jwtExpiration", 300L);
+        jwtDecoder = new SignedJwtDecoder(keyRing);
+    }
+
+    @ParameterizedTest
+    @CsvSource({ "RS256, RS256", "ES256, ES256", "Ed25519, EdDSA" })
+    void shouldCreateTokenAcceptedByDecoder(String algorithm, String headerAlgorithm) throws Exception {
+        setUp(algorithm);
+
+        var jwt = jwtDecoder.decode(jwtActions.jwtCreate("test@email.com", "CLIENT"));
+
+        assertEquals(headerAlgorithm, jwt.getHeaders().get("alg"));
+        assertEquals("login_app", jwt.getClaimAsString("iss"));
+        assertEquals("test@email.com", jwt.getSubject());
+        assertEquals("CLIENT", jwt.getClaimAsString("scope"));
+        assertEquals(300L, jwt.getExpiresAt().getEpochSecond() - jwt.getIssuedAt().getEpochSecond());
+    }
+
+    @Test
+    void shouldEscapeClaimValues() throws Exception {
+        setUp("RS256");
+        var subject = "\"quoted\\name\"@email.com";
+
+        var jwt = jwtDecoder.decode(jwtActions.jwtCreate(subject, "CLIENT"));
+
+        assertEquals(subject, jwt.getSubject());
+        assertTrue(jwt.getClaims().containsKey("scope"));
+    }
+
+    @Test
+    void shouldRejectTamperedToken() throws Exception {
+        setUp("ES256");
+        var token = jwtActions.jwtCreate("test@email.com", "CLIENT");
+        var forged = jwtActions.jwtCreate("admin@email.com", "ADMIN");
+        var tampered = forged.substring(0, forged.lastIndexOf('.')) + token.substring(token.lastIndexOf('.'));
+
+        assertThrows(BadJwtException.class, () -> jwtDecoder.decode(tampered));
+    }
+
+    @Test
+    void shouldRejectKeyOfAnotherAlgorithm() throws Exception {
+        var jwtConfig = jwtConfig("ES256");
+        ReflectionTestUtils.setField(jwtConfig, "algorithm", "Ed25519");
+
+        assertThrows(IllegalStateException.class, jwtConfig::jwtKeyMaterial);
+    }
+}
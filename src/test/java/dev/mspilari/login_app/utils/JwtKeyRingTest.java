@@ -0,0 +1,82 @@
+package dev.mspilari.login_app.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.nimbusds.jose.JWSAlgorithm;
+
+import dev.mspilari.login_app.configs.JwtKeyMaterial;
+
+public class JwtKeyRingTest {
+
+    private final Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+    private MutableClock clock;
+
+    private JwtKeyRing keyRing;
+
+    private JwtActions jwtActions;
+
+    private SignedJwtDecoder jwtDecoder;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(now);
+        keyRing = new JwtKeyRing(JwtKeyMaterial.generate(JWSAlgorithm.ES256), true, Duration.ofHours(1),
+                Duration.ofMinutes(5), Duration.ofMinutes(6), clock);
+        jwtActions = new JwtActions(keyRing);
+        ReflectionTestUtils.setField(jwtActions, "jwtExpiration", 300L);
+        jwtDecoder = new SignedJwtDecoder(keyRing);
+    }
+
+    @Test
+    void shouldSignWithKidOfActiveKey() {
+        var jwt = jwtDecoder.decode(jwtActions.jwtCreate("test@email.com", "CLIENT"));
+
+        assertNotNull(keyRing.signingKey().kid());
+        assertEquals(keyRing.signingKey().kid(), jwt.getHeaders().get("kid"));
+    }
+
+    @Test
+    void shouldPublishNextKeyBeforeActivatingIt() {
+        var initialKid = keyRing.signingKey().kid();
+
+        clock.instant = now.plus(Duration.ofMinutes(55));
+        keyRing.rotateIfDue();
+
+        assertEquals(initialKid, keyRing.signingKey().kid());
+        assertEquals(2, keyRing.publicJwkSet().getKeys().size());
+
+        clock.instant = now.plus(Duration.ofMinutes(60));
+        keyRing.rotateIfDue();
+
+        assertNotEquals(initialKid, keyRing.signingKey().kid());
+    }
+
+    @Test
+    void shouldVerifyTokensOfRetiredKeyUntilRetentionEnds() {
+        var oldToken = jwtActions.jwtCreate("test@email.com", "CLIENT");
+
+        keyRing.rotateNow();
+        var newToken = jwtActions.jwtCreate("test@email.com", "CLIENT");
+
+        assertNotNull(jwtDecoder.decode(oldToken));
+        assertNotNull(jwtDecoder.decode(newToken));
+
+        clock.instant = now.plus(Duration.ofMinutes(7));
+        keyRing.rotateIfDue();
+
+        assertEquals(1, keyRing.publicJwkSet().getKeys().size());
+        assertThrows(BadJwtException.class, () -> jwtDecoder.decode(oldToken));
+    }
+}
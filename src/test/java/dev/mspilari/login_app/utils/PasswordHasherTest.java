@@ -0,0 +1,101 @@
+package dev.mspilari.login_app.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import dev.mspilari.login_app.exceptions.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class PasswordHasherTest {
+
+    private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private PasswordHasher passwordHasher;
+
+    private PasswordHasher startHasher(int threads, int queueCapacity) {
+        var hasher = new PasswordHasher(passwordEncoder, meterRegistry);
+        ReflectionTestUtils.setField(hasher, "threads", threads);
+        ReflectionTestUtils.setField(hasher, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(hasher, "retryAfterSeconds", 2L);
+        hasher.start();
+        return hasher;
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHasher.stop();
+    }
+
+    @Test
+    void shouldHashOnWorkerPool() {
+        passwordHasher = startHasher(1, 1);
+        when(passwordEncoder.encode("12345")).thenAnswer(invocation -> Thread.currentThread().getName());
+
+        assertTrue(passwordHasher.encode("12345").startsWith("password-hasher-"));
+    }
+
+    @Test
+    void shouldRecordHashingCostPerOperation() {
+        passwordHasher = startHasher(1, 1);
+        when(passwordEncoder.encode("12345")).thenReturn("hash");
+        when(passwordEncoder.matches("12345", "hash")).thenReturn(true);
+
+        passwordHasher.encode("12345");
+        passwordHasher.matches("12345", "hash");
+        passwordHasher.matches("12345", "hash");
+
+        assertEquals(1, meterRegistry.get("password.hashing.cost").tag("operation", "encode").timer().count());
+        assertEquals(2, meterRegistry.get("password.hashing.cost").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    void shouldRejectWithRetryAfterWhenQueueIsFull() throws Exception {
+        passwordHasher = startHasher(1, 1);
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+
+        when(passwordEncoder.matches("busy", "hash")).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return true;
+        });
+
+        var running = CompletableFuture.supplyAsync(() -> passwordHasher.matches("busy", "hash"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        var queued = CompletableFuture.supplyAsync(() -> passwordHasher.matches("busy", "hash"));
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            while (meterRegistry.get("executor.queued").tag("name", "password.hashing").gauge().value() < 1) {
+                Thread.onSpinWait();
+            }
+        });
+
+        ServiceBusyException exception = assertThrows(ServiceBusyException.class,
+                () -> passwordHasher.matches("busy", "hash"));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatusCode());
+        assertEquals("2", exception.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(1.0, meterRegistry.counter("password.hashing.rejected").count());
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+}
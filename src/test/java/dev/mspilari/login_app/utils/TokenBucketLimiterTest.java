@@ -0,0 +1,138 @@
+package dev.mspilari.login_app.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import dev.mspilari.login_app.utils.TokenBucketLimiter.Overflow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class TokenBucketLimiterTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TokenBucketLimiter limiter(int capacity, int maxBuckets) {
+        return limiter(capacity, maxBuckets, Overflow.EVICT);
+    }
+
+    private TokenBucketLimiter limiter(int capacity, int maxBuckets, Overflow overflow) {
+        return new TokenBucketLimiter("test", capacity, Duration.ofSeconds(1), maxBuckets, overflow, meterRegistry,
+                clock);
+    }
+
+    @Nested
+    class Acquire {
+        @Test
+        void shouldAllowBurstUpToCapacity() {
+            var limiter = limiter(3, 10);
+
+            assertEquals(0, limiter.tryAcquire("key"));
+            assertEquals(0, limiter.tryAcquire("key"));
+            assertEquals(0, limiter.tryAcquire("key"));
+            assertEquals(1000, limiter.tryAcquire("key"));
+            assertEquals(1.0, meterRegistry.counter("rate.limiter.rejected", "limiter", "test").count());
+        }
+
+        @Test
+        void shouldRefillOverTime() {
+            var limiter = limiter(2, 10);
+
+            limiter.tryAcquire("key");
+            limiter.tryAcquire("key");
+            clock.instant = clock.instant.plusMillis(400);
+
+            assertEquals(600, limiter.tryAcquire("key"));
+
+            clock.instant = clock.instant.plusMillis(600);
+
+            assertEquals(0, limiter.tryAcquire("key"));
+        }
+
+        @Test
+        void shouldKeepSeparateBucketsPerKey() {
+            var limiter = limiter(1, 10);
+
+            assertEquals(0, limiter.tryAcquire("first"));
+            assertEquals(0, limiter.tryAcquire("second"));
+            assertEquals(1000, limiter.tryAcquire("first"));
+        }
+
+        @Test
+        void shouldNotHandOutMoreTokensThanCapacityUnderContention() throws Exception {
+            var limiter = limiter(50, 10);
+            var allowed = new AtomicInteger();
+            var start = new CountDownLatch(1);
+
+            try (var executor = Executors.newFixedThreadPool(8)) {
+                for (int i = 0; i < 400; i++) {
+                    executor.execute(() -> {
+                        try {
+                            start.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        if (limiter.tryAcquire("key") == 0) {
+                            allowed.incrementAndGet();
+                        }
+                    });
+                }
+                start.countDown();
+            }
+
+            assertEquals(50, allowed.get());
+        }
+    }
+
+    @Nested
+    class Eviction {
+        @Test
+        void shouldEvictIdleBucketsWhenFull() {
+            var limiter = limiter(1, 2);
+
+            limiter.tryAcquire("first");
+            limiter.tryAcquire("second");
+            clock.instant = clock.instant.plusSeconds(1);
+
+            assertEquals(0, limiter.tryAcquire("third"));
+            assertEquals(1, limiter.size());
+        }
+
+        @Test
+        void shouldEvictTheMostRefilledBucketWhenFullOfActiveBuckets() {
+            var limiter = limiter(1, 2);
+
+            limiter.tryAcquire("first");
+            clock.instant = clock.instant.plusMillis(500);
+            limiter.tryAcquire("second");
+
+            assertEquals(0, limiter.tryAcquire("third"));
+            assertEquals(1000, limiter.tryAcquire("second"));
+            assertEquals(1000, limiter.tryAcquire("third"));
+            assertEquals(2, limiter.size());
+            assertEquals(1.0, meterRegistry.counter("rate.limiter.overflow", "limiter", "test").count());
+        }
+
+        @Test
+        void shouldLetNewKeysThroughUntrackedWhenOverflowIsAllowed() {
+            var limiter = limiter(1, 2, Overflow.ALLOW);
+
+            limiter.tryAcquire("first");
+            limiter.tryAcquire("second");
+
+            assertEquals(0, limiter.tryAcquire("third"));
+            assertEquals(0, limiter.tryAcquire("third"));
+            assertEquals(1000, limiter.tryAcquire("first"));
+            assertEquals(2, limiter.size());
+            assertEquals(2.0, meterRegistry.counter("rate.limiter.overflow", "limiter", "test").count());
+        }
+    }
+}